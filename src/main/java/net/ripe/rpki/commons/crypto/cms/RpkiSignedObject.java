@@ -148,7 +148,7 @@ public abstract class RpkiSignedObject implements CertificateRepositoryObject {
         X509Crl crl = crlLocator.getCrl(getCrlUri(), context, result);
 
         result.setLocation(savedCurrentLocation);
-        result.rejectIfNull(crl, ValidationString.OBJECTS_CRL_VALID, getCrlUri().toString());
+        result.rejectIfNull(crl, ValidationString.OBJECTS_CRL_VALID, getCrlUri());
         if (crl != null) {
             validateWithCrl(location, context, options, result, crl);
         }
@@ -158,7 +158,7 @@ public abstract class RpkiSignedObject implements CertificateRepositoryObject {
 
     @Override
     public void validate(String location, CertificateRepositoryObjectValidationContext context, X509Crl crl, URI crlUri, ValidationOptions options, ValidationResult result) {
-        result.rejectIfNull(crl, ValidationString.OBJECTS_CRL_VALID, crlUri.toString());
+        result.rejectIfNull(crl, ValidationString.OBJECTS_CRL_VALID, crlUri);
         if (crl != null) {
             validateWithCrl(location, context, options, result, crl);
         }
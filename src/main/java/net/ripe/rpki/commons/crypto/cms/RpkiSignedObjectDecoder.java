@@ -0,0 +1,226 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.cms;
+
+import net.ripe.rpki.commons.crypto.util.Asn1UtilException;
+import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
+import net.ripe.rpki.commons.crypto.util.DerReader;
+import org.bouncycastle.asn1.ASN1Encodable;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.ASN1Set;
+import org.bouncycastle.asn1.cms.CMSObjectIdentifiers;
+import org.bouncycastle.asn1.cms.ContentInfo;
+import org.bouncycastle.asn1.cms.SignedData;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSTypedData;
+import org.bouncycastle.cms.SignerInformationStore;
+import org.bouncycastle.operator.OperatorCreationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decodes the RFC 6488 signed object profile of CMS SignedData in a single pass over the DER encoded bytes.
+ * The eContent, certificates and SignerInfos are located by offset and handed out as slices of the encoded
+ * object, so they do not need to be copied through streams or decoded a second time.
+ * <p>
+ * Only the plain DER encoding produced by RPKI signers is handled. {@link #decode(byte[])} returns
+ * <code>null</code> for anything else (BER, detached content, unknown digest algorithms, ...) so the caller can
+ * fall back to the generic {@link org.bouncycastle.cms.CMSSignedDataParser}.
+ */
+final class RpkiSignedObjectDecoder {
+
+    private static final byte[] SIGNED_DATA_OID = new DerReader(encode(CMSObjectIdentifiers.signedData)).next(DerReader.OBJECT_IDENTIFIER).getContents();
+
+    private final byte[] encoded;
+    private final ASN1ObjectIdentifier contentType;
+    private final int contentOffset;
+    private final int contentLength;
+    private final List<Slice> certificates;
+    private final ASN1Set digestAlgorithms;
+    private final ASN1Set signerInfos;
+
+    private RpkiSignedObjectDecoder(byte[] encoded, ASN1ObjectIdentifier contentType, int contentOffset, int contentLength,
+                                    List<Slice> certificates, ASN1Set digestAlgorithms, ASN1Set signerInfos) {
+        this.encoded = encoded;
+        this.contentType = contentType;
+        this.contentOffset = contentOffset;
+        this.contentLength = contentLength;
+        this.certificates = certificates;
+        this.digestAlgorithms = digestAlgorithms;
+        this.signerInfos = signerInfos;
+    }
+
+    static RpkiSignedObjectDecoder decode(byte[] encoded) {
+        try {
+            DerReader contentInfo = new DerReader(encoded).next(DerReader.SEQUENCE);
+            if (contentInfo.hasNext()) {
+                return null;
+            }
+            DerReader contentInfoFields = contentInfo.contents();
+            if (!contentInfoFields.next(DerReader.OBJECT_IDENTIFIER).contentsEqual(SIGNED_DATA_OID)) {
+                return null;
+            }
+            DerReader signedData = contentInfoFields.next(DerReader.contextTag(0, true)).contents().next(DerReader.SEQUENCE);
+            if (contentInfoFields.hasNext() || signedData.hasNext()) {
+                return null;
+            }
+
+            DerReader fields = signedData.contents();
+            fields.next(DerReader.INTEGER);
+            ASN1Set digestAlgorithms = ASN1Set.getInstance(slice(encoded, fields.next(DerReader.SET)));
+            if (!isSupported(digestAlgorithms)) {
+                return null;
+            }
+
+            DerReader encapContentInfo = fields.next(DerReader.SEQUENCE).contents();
+            ASN1ObjectIdentifier contentType = ASN1ObjectIdentifier.getInstance(slice(encoded, encapContentInfo.next(DerReader.OBJECT_IDENTIFIER)));
+            if (!encapContentInfo.hasNext()) {
+                return null;
+            }
+            DerReader eContent = encapContentInfo.next(DerReader.contextTag(0, true)).contents().next(DerReader.OCTET_STRING);
+            if (encapContentInfo.hasNext()) {
+                return null;
+            }
+
+            List<Slice> certificates = Collections.emptyList();
+            int tag = fields.next();
+            if (tag == DerReader.contextTag(0, true)) {
+                certificates = new ArrayList<Slice>();
+                DerReader certificateChoices = fields.contents();
+                while (certificateChoices.hasNext()) {
+                    // Other certificate choices are tagged and ignored, just like the CMSSignedDataParser does
+                    if (certificateChoices.next() == DerReader.SEQUENCE) {
+                        certificates.add(new Slice(certificateChoices.getOffset(), certificateChoices.getLength()));
+                    }
+                }
+                tag = fields.next();
+            }
+            if (tag == DerReader.contextTag(1, true)) {
+                tag = fields.next();
+            }
+            if (tag != DerReader.SET || fields.hasNext()) {
+                return null;
+            }
+            ASN1Set signerInfos = ASN1Set.getInstance(slice(encoded, fields));
+
+            return new RpkiSignedObjectDecoder(encoded, contentType, eContent.getContentOffset(), eContent.getContentLength(),
+                certificates, digestAlgorithms, signerInfos);
+        } catch (Asn1UtilException | IllegalArgumentException | IOException e) {
+            return null;
+        }
+    }
+
+    ASN1ObjectIdentifier getContentType() {
+        return contentType;
+    }
+
+    InputStream getContentStream() {
+        return new ByteArrayInputStream(encoded, contentOffset, contentLength);
+    }
+
+    int getCertificateCount() {
+        return certificates.size();
+    }
+
+    InputStream getCertificateStream(int index) {
+        Slice certificate = certificates.get(index);
+        return new ByteArrayInputStream(encoded, certificate.offset, certificate.length);
+    }
+
+    /**
+     * Builds the signer information directly from the decoded SignerInfos, with the eContent slice as signed
+     * content, so signature verification behaves exactly as with the {@link org.bouncycastle.cms.CMSSignedDataParser}.
+     */
+    SignerInformationStore getSignerInfos() throws CMSException {
+        SignedData signedData = new SignedData(digestAlgorithms, new ContentInfo(contentType, null), null, null, signerInfos);
+        CMSSignedData cmsSignedData = new CMSSignedData(new SlicedContent(), new ContentInfo(CMSObjectIdentifiers.signedData, signedData));
+        return cmsSignedData.getSignerInfos();
+    }
+
+    private static boolean isSupported(ASN1Set digestAlgorithms) {
+        for (ASN1Encodable digestAlgorithm : digestAlgorithms) {
+            try {
+                BouncyCastleUtil.DIGEST_CALCULATOR_PROVIDER.get(AlgorithmIdentifier.getInstance(digestAlgorithm));
+            } catch (OperatorCreationException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] encode(ASN1ObjectIdentifier oid) {
+        try {
+            return oid.getEncoded();
+        } catch (IOException e) {
+            throw new Asn1UtilException("cannot encode " + oid, e);
+        }
+    }
+
+    private static ASN1Primitive slice(byte[] encoded, DerReader reader) throws IOException {
+        return ASN1Primitive.fromByteArray(Arrays.copyOfRange(encoded, reader.getOffset(), reader.getOffset() + reader.getLength()));
+    }
+
+    private static final class Slice {
+        private final int offset;
+        private final int length;
+
+        private Slice(int offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private final class SlicedContent implements CMSTypedData {
+        @Override
+        public ASN1ObjectIdentifier getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public void write(OutputStream out) throws IOException {
+            out.write(encoded, contentOffset, contentLength);
+        }
+
+        @Override
+        public Object getContent() {
+            return Arrays.copyOfRange(encoded, contentOffset, contentOffset + contentLength);
+        }
+    }
+}
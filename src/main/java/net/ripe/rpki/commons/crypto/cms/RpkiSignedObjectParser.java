@@ -31,8 +31,11 @@ package net.ripe.rpki.commons.crypto.cms;
 
 import net.ripe.rpki.commons.crypto.util.BouncyCastleUtil;
 import net.ripe.rpki.commons.crypto.x509cert.AbstractX509CertificateWrapperException;
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateParser;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
+import net.ripe.rpki.commons.metrics.RpkiMetrics;
+import net.ripe.rpki.commons.util.RepositoryObjectType;
 import net.ripe.rpki.commons.util.UTC;
 import net.ripe.rpki.commons.validation.ValidationResult;
 
@@ -54,7 +57,9 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import static net.ripe.rpki.commons.crypto.cms.RpkiSignedObject.ALLOWED_SIGNATURE_ALGORITHM_OIDS;
 import static net.ripe.rpki.commons.crypto.cms.RpkiSignedObject.DIGEST_ALGORITHM_OID;
@@ -79,7 +84,19 @@ public abstract class RpkiSignedObjectParser {
     public void parse(ValidationResult result, byte[] encoded) {
         this.validationResult = result;
         this.encoded = encoded;
+        long startTime = RpkiMetrics.startTimer();
         parseCms();
+        if (startTime != 0L) {
+            RpkiMetrics.recordParsed(getObjectType(), encoded, !result.hasFailureForCurrentLocation(), startTime);
+        }
+    }
+
+    /**
+     * @return the type of object parsed, used for metrics. Subclasses return their own type; the default is derived
+     * from the file name extension of the current location.
+     */
+    protected RepositoryObjectType getObjectType() {
+        return RepositoryObjectType.parse(validationResult.getCurrentLocation().getName());
     }
 
     protected byte[] getEncoded() {
@@ -121,6 +138,28 @@ public abstract class RpkiSignedObjectParser {
     }
 
     private void parseCms() {
+        RpkiSignedObjectDecoder decoded = RpkiSignedObjectDecoder.decode(encoded);
+        if (decoded == null) {
+            parseCmsWithParser();
+            return;
+        }
+        validationResult.rejectIfFalse(true, CMS_DATA_PARSING);
+
+        if (!validationResult.hasFailures()) {
+            parseContent(decoded);
+        }
+        if (!validationResult.hasFailures()) {
+            parseCmsCertificate(extractCertificates(decoded));
+        }
+        if (!validationResult.hasFailures()) {
+            verifyCmsSigning(getSignerStore(decoded), certificate.getCertificate());
+        }
+    }
+
+    /**
+     * Generic CMS parsing for objects that are not plain DER encoded, see {@link RpkiSignedObjectDecoder}.
+     */
+    private void parseCmsWithParser() {
         CMSSignedDataParser sp;
         try {
             sp = new CMSSignedDataParser(BouncyCastleUtil.DIGEST_CALCULATOR_PROVIDER, encoded);
@@ -134,30 +173,51 @@ public abstract class RpkiSignedObjectParser {
             parseContent(sp);
         }
         if (!validationResult.hasFailures()) {
-            parseCmsCertificate(sp);
+            parseCmsCertificate(extractCertificate(sp));
         }
         if (!validationResult.hasFailures()) {
-            verifyCmsSigning(sp, certificate.getCertificate());
+            verifyCmsSigning(getSignerStore(sp), certificate.getCertificate());
         }
     }
 
+    /**
+     * Decodes the signed content of the object. Called for DER encoded objects as well as for objects that are
+     * parsed with the generic CMS parser.
+     */
+    protected void parseContent(ASN1ObjectIdentifier contentType, InputStream content) throws IOException {
+        this.contentType = contentType;
+        decodeRawContent(content);
+    }
+
+    /**
+     * Decodes the signed content of objects parsed with the generic CMS parser.
+     *
+     * @deprecated DER encoded objects are no longer parsed with {@link CMSSignedDataParser}, so this is only called
+     * for objects that are not plain DER encoded. Override {@link #parseContent(ASN1ObjectIdentifier, InputStream)}
+     * instead, which is called for both.
+     */
+    @Deprecated
     protected void parseContent(CMSSignedDataParser sp) {
         final CMSTypedStream signedContent = sp.getSignedContent();
-        contentType = signedContent.getContentType();
-
 
         try (InputStream signedContentStream = signedContent.getContentStream()) {
-            decodeRawContent(signedContentStream);
+            parseContent(signedContent.getContentType(), signedContentStream);
             validationResult.pass(DECODE_CONTENT);
         } catch (IOException e) {
             validationResult.error(DECODE_CONTENT);
-            return;
         }
     }
 
-    private void parseCmsCertificate(CMSSignedDataParser sp) {
-        Collection<? extends Certificate> certificates = extractCertificate(sp);
+    private void parseContent(RpkiSignedObjectDecoder decoded) {
+        try (InputStream signedContentStream = decoded.getContentStream()) {
+            parseContent(decoded.getContentType(), signedContentStream);
+            validationResult.pass(DECODE_CONTENT);
+        } catch (IOException e) {
+            validationResult.error(DECODE_CONTENT);
+        }
+    }
 
+    private void parseCmsCertificate(Collection<? extends Certificate> certificates) {
         if (!validationResult.rejectIfNull(certificates, GET_CERTS_AND_CRLS)) {
             return;
         }
@@ -168,7 +228,7 @@ public abstract class RpkiSignedObjectParser {
             return;
         }
 
-        certificate = parseCertificate(certificates.iterator().next());
+        certificate = parseCertificate((X509Certificate) certificates.iterator().next());
         if (validationResult.hasFailureForCurrentLocation()) {
             return;
         }
@@ -177,15 +237,10 @@ public abstract class RpkiSignedObjectParser {
         validationResult.rejectIfNull(certificate.getSubjectKeyIdentifier(), CERT_HAS_SKI);
     }
 
-    private X509ResourceCertificate parseCertificate(Certificate certificate) {
-        try {
-            X509Certificate x509certificate = (X509Certificate) certificate;
-            X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
-            parser.parse(validationResult, x509certificate.getEncoded());
-            return parser.isSuccess() ? parser.getCertificate() : null;
-        } catch (CertificateEncodingException e) {
-            throw new AbstractX509CertificateWrapperException("cannot parse already decoded X509 certificate: " + e, e);
-        }
+    private X509ResourceCertificate parseCertificate(X509Certificate x509certificate) {
+        X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
+        parser.parse(validationResult, x509certificate);
+        return parser.isSuccess() ? parser.getCertificate() : null;
     }
 
     private Collection<? extends Certificate> extractCertificate(CMSSignedDataParser sp) {
@@ -196,10 +251,22 @@ public abstract class RpkiSignedObjectParser {
         }
     }
 
-    private void verifyCmsSigning(CMSSignedDataParser sp, X509Certificate certificate) {
+    private Collection<? extends Certificate> extractCertificates(RpkiSignedObjectDecoder decoded) {
+        List<X509Certificate> result = new ArrayList<>(decoded.getCertificateCount());
+        for (int i = 0; i < decoded.getCertificateCount(); i++) {
+            X509Certificate x509Certificate = X509CertificateParser.parseX509Certificate(decoded.getCertificateStream(i));
+            if (x509Certificate == null) {
+                return null;
+            }
+            result.add(x509Certificate);
+        }
+        return result;
+    }
+
+    private void verifyCmsSigning(SignerInformationStore signerStore, X509Certificate certificate) {
         // Note: validationResult field is updated by methods used here.
 
-        SignerInformation signer = extractSingleCmsSigner(sp);
+        SignerInformation signer = extractSingleCmsSigner(signerStore);
         if (signer == null) {
             return;
         }
@@ -215,8 +282,7 @@ public abstract class RpkiSignedObjectParser {
         verifySignature(certificate, signer);
     }
 
-    private SignerInformation extractSingleCmsSigner(CMSSignedDataParser sp) {
-        SignerInformationStore signerStore = getSignerStore(sp);
+    private SignerInformation extractSingleCmsSigner(SignerInformationStore signerStore) {
         if (!validationResult.rejectIfNull(signerStore, GET_SIGNER_INFO)) {
             return null;
         }
@@ -236,6 +302,14 @@ public abstract class RpkiSignedObjectParser {
             return null; // Caller will validate that the SignerInformationStore is not null
         }
     }
+
+    private SignerInformationStore getSignerStore(RpkiSignedObjectDecoder decoded) {
+        try {
+            return decoded.getSignerInfos();
+        } catch (CMSException | RuntimeException e) {
+            return null; // Caller will validate that the SignerInformationStore is not null
+        }
+    }
     
     private boolean isAllowedSignedAttribute(Attribute signedAttribute) {
     	
@@ -324,7 +398,12 @@ public abstract class RpkiSignedObjectParser {
             final SignerInformationVerifier verifier = new JcaSignerInfoVerifierBuilder(
                 BouncyCastleUtil.DIGEST_CALCULATOR_PROVIDER).build(certificate.getPublicKey());
 
-            validationResult.rejectIfFalse(signer.verify(verifier), SIGNATURE_VERIFICATION);
+            long startTime = RpkiMetrics.startTimer();
+            boolean verified = signer.verify(verifier);
+            if (startTime != 0L) {
+                RpkiMetrics.recordTime(RpkiMetrics.SIGNATURE_VERIFICATION_TIME, getObjectType(), startTime);
+            }
+            validationResult.rejectIfFalse(verified, SIGNATURE_VERIFICATION);
         } catch (OperatorCreationException | CMSException e) {
             errorMessage = String.valueOf(e.getMessage());
         }
@@ -0,0 +1,156 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.crl;
+
+import net.ripe.rpki.commons.crypto.x509cert.AbstractX509CertificateWrapper;
+import net.ripe.rpki.commons.crypto.x509cert.X509CertificateObject;
+import net.ripe.rpki.commons.util.UTC;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.validation.objectvalidators.CertificateRepositoryObjectValidationContext;
+import org.apache.commons.lang.Validate;
+import org.joda.time.DateTime;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CrlLocator} that remembers the CRLs found by another locator, per CRL URI and issuing certificate, until
+ * their next update time or until they are invalidated. Only CRLs that were located without failures are cached,
+ * so the checks recorded by the wrapped locator are recorded once, by the lookup that caused the CRL to be cached.
+ * Lookups that find a cached CRL record no checks.
+ *
+ * This class is thread-safe. Concurrent lookups of a CRL that is not cached yet may each call the wrapped locator.
+ */
+public class CachingCrlLocator implements CrlLocator {
+
+    private final CrlLocator crlLocator;
+
+    private final ConcurrentHashMap<Key, X509Crl> crls = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong expiredCount = new AtomicLong();
+
+    public CachingCrlLocator(CrlLocator crlLocator) {
+        Validate.notNull(crlLocator, "crlLocator is required");
+        this.crlLocator = crlLocator;
+    }
+
+    @Override
+    public X509Crl getCrl(URI uri, CertificateRepositoryObjectValidationContext context, ValidationResult result) {
+        if (uri == null) {
+            return crlLocator.getCrl(uri, context, result);
+        }
+        Key key = new Key(uri, context.getUntypedCertificate());
+        X509Crl cached = crls.get(key);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                hitCount.incrementAndGet();
+                return cached;
+            }
+            crls.remove(key, cached);
+            expiredCount.incrementAndGet();
+        }
+        missCount.incrementAndGet();
+
+        ValidationResult temp = ValidationResult.withLocation(result.getCurrentLocation());
+        X509Crl crl = crlLocator.getCrl(uri, context, temp);
+        result.addAll(temp);
+        if (crl != null && !temp.hasFailures() && !isExpired(crl)) {
+            crls.put(key, crl);
+        }
+        return crl;
+    }
+
+    /**
+     * Removes the CRLs for <code>uri</code>, e.g. after a new CRL was published at that location.
+     */
+    public void invalidate(URI uri) {
+        crls.keySet().removeIf((key) -> key.uri.equals(uri));
+    }
+
+    public void invalidateAll() {
+        crls.clear();
+    }
+
+    public int size() {
+        return crls.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * @return the number of cached CRLs that were dropped because their next update time had passed.
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private static boolean isExpired(X509Crl crl) {
+        DateTime nextUpdateTime = crl.getNextUpdateTime();
+        return nextUpdateTime != null && !UTC.dateTime().isBefore(nextUpdateTime);
+    }
+
+    private static final class Key {
+        private final URI uri;
+        private final Object issuer;
+        private final int hashCode;
+
+        private Key(URI uri, X509CertificateObject issuer) {
+            this.uri = uri;
+            this.issuer = issuer instanceof AbstractX509CertificateWrapper ? ((AbstractX509CertificateWrapper) issuer).getFingerprint() : issuer;
+            this.hashCode = 31 * uri.hashCode() + (this.issuer == null ? 0 : this.issuer.hashCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return uri.equals(that.uri) && (issuer == null ? that.issuer == null : issuer.equals(that.issuer));
+        }
+    }
+}
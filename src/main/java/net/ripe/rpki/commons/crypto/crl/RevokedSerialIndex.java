@@ -0,0 +1,219 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.crl;
+
+import net.ripe.rpki.commons.crypto.util.Asn1UtilException;
+import net.ripe.rpki.commons.crypto.util.DerReader;
+import org.joda.time.DateTime;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Sorted index of the revoked serial numbers of a DER encoded CRL. Serial numbers that fit in a <code>long</code>
+ * are kept in a primitive array, larger ones in a separate <code>BigInteger</code> array, and both are searched
+ * with a binary search. Revocation dates are only decoded when an entry is requested.
+ */
+final class RevokedSerialIndex {
+
+    private static final long[] NO_SERIALS = new long[0];
+    private static final BigInteger[] NO_BIG_SERIALS = new BigInteger[0];
+    private static final int[] NO_OFFSETS = new int[0];
+
+    private final byte[] encoded;
+
+    private final long[] serials;
+    private final int[] revocationDateOffsets;
+
+    private final BigInteger[] bigSerials;
+    private final int[] bigRevocationDateOffsets;
+
+    private RevokedSerialIndex(byte[] encoded, long[] serials, int[] revocationDateOffsets, BigInteger[] bigSerials, int[] bigRevocationDateOffsets) { //NOPMD - ArrayIsStoredDirectly
+        this.encoded = encoded;
+        this.serials = serials;
+        this.revocationDateOffsets = revocationDateOffsets;
+        this.bigSerials = bigSerials;
+        this.bigRevocationDateOffsets = bigRevocationDateOffsets;
+    }
+
+    /**
+     * Builds the index from the <code>revokedCertificates</code> element of a CRL.
+     *
+     * @param encoded the encoded CRL
+     * @param revokedCertificates reader over the contents of the <code>revokedCertificates</code> sequence, or
+     *                            null when the CRL has no revoked certificates
+     */
+    static RevokedSerialIndex of(byte[] encoded, DerReader revokedCertificates) {
+        if (revokedCertificates == null || !revokedCertificates.hasNext()) {
+            return new RevokedSerialIndex(encoded, NO_SERIALS, NO_OFFSETS, NO_BIG_SERIALS, NO_OFFSETS);
+        }
+
+        int count = 0;
+        int bigCount = 0;
+        long[] serials = new long[16];
+        int[] offsets = new int[16];
+        BigInteger[] bigSerials = NO_BIG_SERIALS;
+        int[] bigOffsets = NO_OFFSETS;
+        while (revokedCertificates.hasNext()) {
+            DerReader entry = revokedCertificates.next(DerReader.SEQUENCE).contents();
+            entry.next(DerReader.INTEGER);
+            int serialOffset = entry.getContentOffset();
+            int serialLength = entry.getContentLength();
+            int revocationDateOffset = X509CrlDecoder.readTime(entry);
+            if (serialLength == 0) {
+                throw new Asn1UtilException("empty serial number");
+            }
+            BigInteger bigSerial = null;
+            if (serialLength > 8) {
+                bigSerial = new BigInteger(Arrays.copyOfRange(encoded, serialOffset, serialOffset + serialLength));
+            }
+            if (bigSerial == null || bigSerial.bitLength() < 64) {
+                if (count == serials.length) {
+                    serials = Arrays.copyOf(serials, count * 2);
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                serials[count] = bigSerial == null ? toLong(encoded, serialOffset, serialLength) : bigSerial.longValue();
+                offsets[count] = revocationDateOffset;
+                count++;
+            } else {
+                if (bigCount == bigSerials.length) {
+                    bigSerials = Arrays.copyOf(bigSerials, Math.max(4, bigCount * 2));
+                    bigOffsets = Arrays.copyOf(bigOffsets, Math.max(4, bigCount * 2));
+                }
+                bigSerials[bigCount] = bigSerial;
+                bigOffsets[bigCount] = revocationDateOffset;
+                bigCount++;
+            }
+        }
+
+        long[] sortedSerials = Arrays.copyOf(serials, count);
+        int[] sortedOffsets = Arrays.copyOf(offsets, count);
+        if (!isSorted(sortedSerials)) {
+            sortByLongSerial(sortedSerials, sortedOffsets);
+        }
+        BigInteger[] sortedBigSerials = Arrays.copyOf(bigSerials, bigCount);
+        int[] sortedBigOffsets = Arrays.copyOf(bigOffsets, bigCount);
+        sortByBigSerial(sortedBigSerials, sortedBigOffsets);
+        return new RevokedSerialIndex(encoded, sortedSerials, sortedOffsets, sortedBigSerials, sortedBigOffsets);
+    }
+
+    int size() {
+        return serials.length + bigSerials.length;
+    }
+
+    boolean contains(BigInteger serialNumber) {
+        return indexOf(serialNumber) >= 0;
+    }
+
+    /**
+     * @return the revocation date of <code>serialNumber</code>, or null when it is not revoked.
+     */
+    DateTime getRevocationDateTime(BigInteger serialNumber) {
+        int index = indexOf(serialNumber);
+        if (index < 0) {
+            return null;
+        }
+        return serialNumber.bitLength() < 64 ? X509CrlDecoder.decodeTime(encoded, revocationDateOffsets[index]) : X509CrlDecoder.decodeTime(encoded, bigRevocationDateOffsets[index]);
+    }
+
+    /**
+     * @return all entries in ascending serial number order.
+     */
+    X509Crl.Entry[] getEntries() {
+        X509Crl.Entry[] result = new X509Crl.Entry[size()];
+        int i = 0;
+        for (int n = 0; n < serials.length; n++) {
+            result[i++] = new X509Crl.Entry(BigInteger.valueOf(serials[n]), X509CrlDecoder.decodeTime(encoded, revocationDateOffsets[n]));
+        }
+        for (int n = 0; n < bigSerials.length; n++) {
+            result[i++] = new X509Crl.Entry(bigSerials[n], X509CrlDecoder.decodeTime(encoded, bigRevocationDateOffsets[n]));
+        }
+        return result;
+    }
+
+    private int indexOf(BigInteger serialNumber) {
+        if (serialNumber.bitLength() < 64) {
+            return Arrays.binarySearch(serials, serialNumber.longValue());
+        }
+        return Arrays.binarySearch(bigSerials, serialNumber);
+    }
+
+    private static long toLong(byte[] encoded, int offset, int length) {
+        long value = encoded[offset];
+        for (int i = 1; i < length; i++) {
+            value = (value << 8) | (encoded[offset + i] & 0xff);
+        }
+        return value;
+    }
+
+    private static boolean isSorted(long[] values) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i - 1] > values[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void sortByLongSerial(long[] serials, int[] offsets) {
+        Integer[] order = order(serials.length);
+        Arrays.sort(order, Comparator.comparingLong((i) -> serials[i]));
+        long[] sortedSerials = new long[serials.length];
+        int[] sortedOffsets = new int[offsets.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedSerials[i] = serials[order[i]];
+            sortedOffsets[i] = offsets[order[i]];
+        }
+        System.arraycopy(sortedSerials, 0, serials, 0, serials.length);
+        System.arraycopy(sortedOffsets, 0, offsets, 0, offsets.length);
+    }
+
+    private static void sortByBigSerial(BigInteger[] serials, int[] offsets) {
+        Integer[] order = order(serials.length);
+        Arrays.sort(order, Comparator.comparing((Integer i) -> serials[i]));
+        BigInteger[] sortedSerials = new BigInteger[serials.length];
+        int[] sortedOffsets = new int[offsets.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedSerials[i] = serials[order[i]];
+            sortedOffsets[i] = offsets[order[i]];
+        }
+        System.arraycopy(sortedSerials, 0, serials, 0, serials.length);
+        System.arraycopy(sortedOffsets, 0, offsets, 0, offsets.length);
+    }
+
+    private static Integer[] order(int length) {
+        Integer[] order = new Integer[length];
+        for (int i = 0; i < length; i++) {
+            order[i] = i;
+        }
+        return order;
+    }
+}
@@ -30,17 +30,16 @@
 package net.ripe.rpki.commons.crypto.crl;
 
 import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
-import net.ripe.rpki.commons.crypto.x509cert.X509CertificateUtil;
+import net.ripe.rpki.commons.crypto.util.Fingerprint;
+import net.ripe.rpki.commons.metrics.RpkiMetrics;
 import net.ripe.rpki.commons.util.EqualsSupport;
+import net.ripe.rpki.commons.util.RepositoryObjectType;
 import net.ripe.rpki.commons.util.UTC;
 import net.ripe.rpki.commons.validation.ValidationOptions;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import net.ripe.rpki.commons.validation.ValidationString;
 import net.ripe.rpki.commons.validation.objectvalidators.CertificateRepositoryObjectValidationContext;
 import org.apache.commons.lang.Validate;
-import org.bouncycastle.asn1.ASN1Integer;
-import org.bouncycastle.asn1.x509.Extension;
-import org.bouncycastle.x509.extension.X509ExtensionUtil;
 import org.joda.time.DateTime;
 
 import javax.security.auth.x500.X500Principal;
@@ -62,9 +61,9 @@ import java.security.cert.X509CRLEntry;
 import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.Comparator;
-import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.*;
 
@@ -76,6 +75,18 @@ public class X509Crl implements CertificateRepositoryObject {
 
     private transient X509CRL crl;
 
+    /**
+     * Public key that the signature of this CRL was last successfully verified with. Since the encoded form
+     * is immutable a successful verification with the same key never needs to be repeated.
+     */
+    private transient volatile PublicKey verifiedPublicKey;
+
+    private final transient AtomicInteger skippedSignatureVerifications = new AtomicInteger();
+
+    private transient volatile Fingerprint fingerprint;
+
+    private transient volatile X509CrlDecoder decoded;
+
     public X509Crl(byte[] encoded) { //NOPMD - ArrayIsStoredDirectly
         Validate.notNull(encoded);
         this.encoded = encoded;
@@ -97,6 +108,10 @@ public class X509Crl implements CertificateRepositoryObject {
     }
 
 
+    /**
+     * @return the JCA representation of this CRL. This builds objects for all CRL entries, so the other methods of
+     * this class should be preferred.
+     */
     public X509CRL getCrl() {
         if (crl == null) {
             crl = makeX509CRLFromEncoded(encoded);
@@ -105,12 +120,16 @@ public class X509Crl implements CertificateRepositoryObject {
     }
 
     public static X509Crl parseDerEncoded(byte[] encoded, ValidationResult validationResult) {
+        long startTime = RpkiMetrics.startTimer();
         try {
-            X509Crl crl = new X509Crl(makeX509CRLFromEncoded(encoded));
+            X509Crl crl = new X509Crl(encoded);
+            crl.getDecoded();
             validationResult.pass(ValidationString.CRL_PARSED);
+            RpkiMetrics.recordParsed(RepositoryObjectType.Crl, encoded, true, startTime);
             return crl;
         } catch (IllegalArgumentException e) {
             validationResult.error(ValidationString.CRL_PARSED);
+            RpkiMetrics.recordParsed(RepositoryObjectType.Crl, encoded, false, startTime);
             return null;
         }
     }
@@ -131,12 +150,21 @@ public class X509Crl implements CertificateRepositoryObject {
         }
     }
 
+    /**
+     * @return the SHA-256 fingerprint of the encoded CRL, computed on first use.
+     */
+    public Fingerprint getFingerprint() {
+        Fingerprint result = fingerprint;
+        if (result == null) {
+            result = Fingerprint.of(encoded);
+            fingerprint = result;
+        }
+        return result;
+    }
+
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + Arrays.hashCode(encoded);
-        return result;
+        return getFingerprint().hashCode();
     }
 
     @Override
@@ -151,24 +179,24 @@ public class X509Crl implements CertificateRepositoryObject {
             return false;
         }
         final X509Crl other = (X509Crl) obj;
-        return Arrays.equals(encoded, other.encoded);
+        return encoded == other.encoded || getFingerprint().equals(other.getFingerprint());
     }
 
 
     public byte[] getAuthorityKeyIdentifier() {
-        return X509CertificateUtil.getAuthorityKeyIdentifier(getCrl());
+        return getDecoded().getAuthorityKeyIdentifier();
     }
 
     public DateTime getThisUpdateTime() {
-        return UTC.dateTime(getCrl().getThisUpdate());
+        return getDecoded().getThisUpdateTime();
     }
 
     public DateTime getNextUpdateTime() {
-        return UTC.dateTime(getCrl().getNextUpdate());
+        return getDecoded().getNextUpdateTime();
     }
 
     public X500Principal getIssuer() {
-        return getCrl().getIssuerX500Principal();
+        return getDecoded().getIssuer();
     }
 
     @Override
@@ -198,40 +226,46 @@ public class X509Crl implements CertificateRepositoryObject {
     }
 
     public int getVersion() {
-        return getCrl().getVersion();
+        return getDecoded().getVersion();
     }
 
     public String getSigAlgName() {
-        return getCrl().getSigAlgName();
+        String name = getDecoded().getSignatureAlgorithmName();
+        return name == null ? getCrl().getSigAlgName() : name;
     }
 
     public SortedSet<Entry> getRevokedCertificates() {
-        SortedSet<Entry> result = new TreeSet<Entry>();
-        Set<? extends X509CRLEntry> entries = getCrl().getRevokedCertificates();
-        if (entries != null) {
-            for (X509CRLEntry entry : entries) {
-                result.add(new Entry(entry));
-            }
-        }
-        return result;
+        return new TreeSet<Entry>(Arrays.asList(getRevokedSerialIndex().getEntries()));
     }
 
     public Entry getRevokedCertificate(BigInteger serialNumber) {
-        X509CRLEntry entry = getCrl().getRevokedCertificate(serialNumber);
-        return entry == null ? null : new Entry(entry);
+        DateTime revocationDateTime = getRevokedSerialIndex().getRevocationDateTime(serialNumber);
+        return revocationDateTime == null ? null : new Entry(serialNumber, revocationDateTime);
     }
 
-    public BigInteger getNumber() {
-        try {
-            byte[] extensionValue = getCrl().getExtensionValue(Extension.cRLNumber.getId());
-            if (extensionValue == null) {
-                return null;
-            }
-            ASN1Integer number = (ASN1Integer) X509ExtensionUtil.fromExtensionValue(extensionValue);
-            return number.getPositiveValue();
-        } catch (IOException e) {
-            throw new X509CrlException("cannot get CRLNumber extension from CRL", e);
+    public boolean isRevoked(BigInteger serialNumber) {
+        return getRevokedSerialIndex().contains(serialNumber);
+    }
+
+    public int getRevokedCertificateCount() {
+        return getRevokedSerialIndex().size();
+    }
+
+    private RevokedSerialIndex getRevokedSerialIndex() {
+        return getDecoded().getRevokedSerialIndex();
+    }
+
+    private X509CrlDecoder getDecoded() {
+        X509CrlDecoder result = decoded;
+        if (result == null) {
+            result = X509CrlDecoder.decode(encoded);
+            decoded = result;
         }
+        return result;
+    }
+
+    public BigInteger getNumber() {
+        return getDecoded().getNumber();
     }
 
     @Override
@@ -250,9 +284,24 @@ public class X509Crl implements CertificateRepositoryObject {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Verifies the signature of this CRL. A successful verification is remembered, so verifying again with
+     * the same public key (e.g. once for every child certificate issued by the same CA) does not repeat the
+     * signature check.
+     */
     public void verify(PublicKey publicKey) throws SignatureException {
+        if (isVerifiedWith(publicKey)) {
+            skippedSignatureVerifications.incrementAndGet();
+            return;
+        }
         try {
-            getCrl().verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            X509CrlDecoder decoder = getDecoded();
+            if (decoder.getSignatureAlgorithmName() == null) {
+                getCrl().verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            } else {
+                decoder.verify(publicKey, DEFAULT_SIGNATURE_PROVIDER);
+            }
+            verifiedPublicKey = publicKey;
         } catch (InvalidKeyException e) {
             throw new IllegalArgumentException(e);
         } catch (CRLException e) {
@@ -264,8 +313,28 @@ public class X509Crl implements CertificateRepositoryObject {
         }
     }
 
+    public boolean isVerifiedWith(PublicKey publicKey) {
+        PublicKey verified = verifiedPublicKey;
+        return verified != null && (verified == publicKey || verified.equals(publicKey));
+    }
+
+    /**
+     * @return the number of signature verifications that were skipped because this CRL was already
+     * verified with the same public key.
+     */
+    public int getSkippedSignatureVerificationCount() {
+        return skippedSignatureVerifications.get();
+    }
+
+    /**
+     * Deserialization does not run field initializers of transient fields, so a fresh instance is created.
+     */
+    private Object readResolve() {
+        return new X509Crl(encoded);
+    }
+
     public boolean isRevoked(X509Certificate certificate) {
-        return getCrl().isRevoked(certificate);
+        return isRevoked(certificate.getSerialNumber());
     }
 
     public static class X509CRLEntryComparator implements Comparator<X509CRLEntry> {
@@ -0,0 +1,275 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.crl;
+
+import net.ripe.rpki.commons.crypto.util.Asn1UtilException;
+import net.ripe.rpki.commons.crypto.util.DerReader;
+import net.ripe.rpki.commons.util.UTC;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.asn1.ASN1Primitive;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.Time;
+import org.joda.time.DateTime;
+
+import javax.security.auth.x500.X500Principal;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.NoSuchProviderException;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.SignatureException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decodes the parts of a DER encoded CRL that RPKI uses directly from the encoding, without building the JCA
+ * object graph of all CRL entries. Only offsets into the encoded CRL and a few small values are kept; the revoked
+ * serial numbers are indexed by {@link RevokedSerialIndex}.
+ */
+final class X509CrlDecoder {
+
+    private static final Map<String, String> SIGNATURE_ALGORITHMS = new HashMap<>();
+
+    static {
+        SIGNATURE_ALGORITHMS.put(PKCSObjectIdentifiers.sha256WithRSAEncryption.getId(), "SHA256withRSA");
+        SIGNATURE_ALGORITHMS.put(PKCSObjectIdentifiers.sha384WithRSAEncryption.getId(), "SHA384withRSA");
+        SIGNATURE_ALGORITHMS.put(PKCSObjectIdentifiers.sha512WithRSAEncryption.getId(), "SHA512withRSA");
+        SIGNATURE_ALGORITHMS.put(PKCSObjectIdentifiers.sha1WithRSAEncryption.getId(), "SHA1withRSA");
+    }
+
+    private final byte[] encoded;
+
+    private final int tbsOffset;
+    private final int tbsLength;
+    private final int signatureOffset;
+    private final int signatureLength;
+
+    private final int version;
+    private final String signatureAlgorithm;
+    private final X500Principal issuer;
+    private final DateTime thisUpdateTime;
+    private final DateTime nextUpdateTime;
+    private final byte[] authorityKeyIdentifier;
+    private final BigInteger number;
+    private final RevokedSerialIndex revokedSerialIndex;
+
+    private X509CrlDecoder(byte[] encoded) { //NOPMD - ArrayIsStoredDirectly
+        this.encoded = encoded;
+
+        DerReader certificateList = new DerReader(encoded).next(DerReader.SEQUENCE).contents();
+        certificateList.next(DerReader.SEQUENCE);
+        this.tbsOffset = certificateList.getOffset();
+        this.tbsLength = certificateList.getLength();
+        DerReader tbsCertList = certificateList.contents();
+        String outerSignatureAlgorithm = readAlgorithm(certificateList.next(DerReader.SEQUENCE).contents());
+        certificateList.next(DerReader.BIT_STRING);
+        if (certificateList.getContentLength() < 1 || encoded[certificateList.getContentOffset()] != 0) {
+            throw new Asn1UtilException("signature must not have unused bits");
+        }
+        this.signatureOffset = certificateList.getContentOffset() + 1;
+        this.signatureLength = certificateList.getContentLength() - 1;
+        if (certificateList.hasNext()) {
+            throw new Asn1UtilException("unexpected data after CRL signature");
+        }
+
+        int tag = tbsCertList.next();
+        if (tag == DerReader.INTEGER) {
+            // an explicit version can only be v2 (encoded as 1), a v1 CRL omits the version
+            if (!tbsCertList.contentsEqual(new byte[]{1})) {
+                throw new Asn1UtilException("invalid CRL version");
+            }
+            this.version = 2;
+            tag = tbsCertList.next();
+        } else {
+            this.version = 1;
+        }
+        if (tag != DerReader.SEQUENCE) {
+            throw new Asn1UtilException("expected signature algorithm but found tag " + tag);
+        }
+        this.signatureAlgorithm = readAlgorithm(tbsCertList.contents());
+        if (!signatureAlgorithm.equals(outerSignatureAlgorithm)) {
+            throw new Asn1UtilException("signature algorithm mismatch");
+        }
+        this.issuer = new X500Principal(tbsCertList.next(DerReader.SEQUENCE).getEncoded());
+        this.thisUpdateTime = decodeTime(encoded, readTime(tbsCertList));
+
+        DateTime nextUpdate = null;
+        DerReader revokedCertificates = null;
+        byte[] aki = null;
+        BigInteger crlNumber = null;
+        while (tbsCertList.hasNext()) {
+            tag = tbsCertList.next();
+            if ((tag == DerReader.UTC_TIME || tag == DerReader.GENERALIZED_TIME) && nextUpdate == null && revokedCertificates == null) {
+                nextUpdate = decodeTime(encoded, tbsCertList.getOffset());
+            } else if (tag == DerReader.SEQUENCE && revokedCertificates == null) {
+                revokedCertificates = tbsCertList.contents();
+            } else if (tag == DerReader.contextTag(0, true) && !tbsCertList.hasNext()) {
+                DerReader extensions = tbsCertList.contents().next(DerReader.SEQUENCE).contents();
+                Set<String> extensionOids = new HashSet<>();
+                while (extensions.hasNext()) {
+                    DerReader extension = extensions.next(DerReader.SEQUENCE).contents();
+                    String oid = ASN1ObjectIdentifier.getInstance(extension.next(DerReader.OBJECT_IDENTIFIER).getEncoded()).getId();
+                    if (!extensionOids.add(oid)) {
+                        throw new Asn1UtilException("duplicate extension " + oid);
+                    }
+                    if (extension.next() == DerReader.BOOLEAN) {
+                        extension.next(DerReader.OCTET_STRING);
+                    } else if (extension.getTag() != DerReader.OCTET_STRING) {
+                        throw new Asn1UtilException("expected extension value but found tag " + extension.getTag());
+                    }
+                    DerReader value = extension.contents();
+                    if (Extension.authorityKeyIdentifier.getId().equals(oid)) {
+                        aki = readKeyIdentifier(value);
+                    } else if (Extension.cRLNumber.getId().equals(oid)) {
+                        crlNumber = new BigInteger(1, value.next(DerReader.INTEGER).getContents());
+                    }
+                }
+            } else {
+                throw new Asn1UtilException("unexpected tag " + tag + " in CRL");
+            }
+        }
+        this.nextUpdateTime = nextUpdate;
+        this.authorityKeyIdentifier = aki;
+        this.number = crlNumber;
+        this.revokedSerialIndex = RevokedSerialIndex.of(encoded, revokedCertificates);
+    }
+
+    /**
+     * @throws IllegalArgumentException the encoding is not a DER encoded CRL
+     */
+    static X509CrlDecoder decode(byte[] encoded) {
+        try {
+            return new X509CrlDecoder(encoded);
+        } catch (Asn1UtilException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    int getVersion() {
+        return version;
+    }
+
+    String getSignatureAlgorithm() {
+        return signatureAlgorithm;
+    }
+
+    /**
+     * @return the JCA name of the signature algorithm, or null when it is not one that RPKI uses.
+     */
+    String getSignatureAlgorithmName() {
+        return SIGNATURE_ALGORITHMS.get(signatureAlgorithm);
+    }
+
+    X500Principal getIssuer() {
+        return issuer;
+    }
+
+    DateTime getThisUpdateTime() {
+        return thisUpdateTime;
+    }
+
+    DateTime getNextUpdateTime() {
+        return nextUpdateTime;
+    }
+
+    byte[] getAuthorityKeyIdentifier() {
+        return authorityKeyIdentifier == null ? null : authorityKeyIdentifier.clone();
+    }
+
+    BigInteger getNumber() {
+        return number;
+    }
+
+    RevokedSerialIndex getRevokedSerialIndex() {
+        return revokedSerialIndex;
+    }
+
+    /**
+     * Verifies the signature over the <code>tbsCertList</code> slice of the encoded CRL.
+     *
+     * @throws NoSuchAlgorithmException the signature algorithm is not supported by {@link #getSignatureAlgorithmName()}
+     */
+    void verify(PublicKey publicKey, String provider) throws SignatureException, InvalidKeyException, NoSuchAlgorithmException, NoSuchProviderException {
+        String algorithmName = getSignatureAlgorithmName();
+        if (algorithmName == null) {
+            throw new NoSuchAlgorithmException(signatureAlgorithm);
+        }
+        Signature signature = Signature.getInstance(algorithmName, provider);
+        signature.initVerify(publicKey);
+        signature.update(encoded, tbsOffset, tbsLength);
+        byte[] signatureValue = new byte[signatureLength];
+        System.arraycopy(encoded, signatureOffset, signatureValue, 0, signatureLength);
+        if (!signature.verify(signatureValue)) {
+            throw new SignatureException("Signature does not match.");
+        }
+    }
+
+    /**
+     * Reads a <code>Time</code> element.
+     *
+     * @return the offset of the element
+     */
+    static int readTime(DerReader reader) {
+        int tag = reader.next();
+        if (tag != DerReader.UTC_TIME && tag != DerReader.GENERALIZED_TIME) {
+            throw new Asn1UtilException("expected time but found tag " + tag);
+        }
+        return reader.getOffset();
+    }
+
+    static DateTime decodeTime(byte[] encoded, int offset) {
+        DerReader reader = new DerReader(encoded, offset, encoded.length - offset);
+        reader.next();
+        try {
+            return UTC.dateTime(Time.getInstance(ASN1Primitive.fromByteArray(reader.getEncoded())).getDate());
+        } catch (IOException | IllegalArgumentException e) {
+            throw new Asn1UtilException("invalid time", e);
+        }
+    }
+
+    private static String readAlgorithm(DerReader algorithmIdentifier) {
+        return ASN1ObjectIdentifier.getInstance(algorithmIdentifier.next(DerReader.OBJECT_IDENTIFIER).getEncoded()).getId();
+    }
+
+    private static byte[] readKeyIdentifier(DerReader value) {
+        DerReader authorityKeyIdentifier = value.next(DerReader.SEQUENCE).contents();
+        while (authorityKeyIdentifier.hasNext()) {
+            if (authorityKeyIdentifier.next() == DerReader.contextTag(0, false)) {
+                return authorityKeyIdentifier.getContents();
+            }
+        }
+        return null;
+    }
+}
@@ -33,6 +33,10 @@ public class Asn1UtilException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
 
+    public Asn1UtilException(String msg) {
+        super(msg);
+    }
+
     public Asn1UtilException(String msg, Exception e) {
         super(msg, e);
     }
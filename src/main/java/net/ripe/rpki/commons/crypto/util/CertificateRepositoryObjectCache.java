@@ -0,0 +1,173 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.util;
+
+import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+import net.ripe.rpki.commons.util.RepositoryObjectType;
+import net.ripe.rpki.commons.validation.ValidationCheck;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.apache.commons.lang.Validate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Size bounded LRU cache of parsed repository objects, keyed by object type and the {@link Fingerprint} of the encoded object.
+ * Together with the parsed object the checks recorded while parsing are kept, so that a cache hit can replay them
+ * for the location that is being parsed.
+ *
+ * This class is thread-safe.
+ */
+public final class CertificateRepositoryObjectCache {
+
+    private final int maximumSize;
+
+    private final Map<Key, Entry> entries;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public CertificateRepositoryObjectCache(int maximumSize) {
+        Validate.isTrue(maximumSize > 0, "maximumSize must be positive");
+        this.maximumSize = maximumSize;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > CertificateRepositoryObjectCache.this.maximumSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    static Key key(RepositoryObjectType objectType, byte[] encoded) {
+        return new Key(objectType, Fingerprint.of(encoded));
+    }
+
+    synchronized Entry get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+        } else {
+            hitCount++;
+        }
+        return entry;
+    }
+
+    synchronized void put(Key key, CertificateRepositoryObject object, List<ValidationCheck> checks) {
+        entries.put(key, new Entry(object, checks.toArray(new ValidationCheck[0])));
+    }
+
+    static final class Key {
+        private final RepositoryObjectType objectType;
+        private final Fingerprint fingerprint;
+        private final int hashCode;
+
+        private Key(RepositoryObjectType objectType, Fingerprint fingerprint) {
+            this.objectType = objectType;
+            this.fingerprint = fingerprint;
+            this.hashCode = 31 * objectType.hashCode() + fingerprint.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return objectType == that.objectType && fingerprint.equals(that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    static final class Entry {
+        private final CertificateRepositoryObject object;
+        private final ValidationCheck[] checks;
+
+        private Entry(CertificateRepositoryObject object, ValidationCheck[] checks) {
+            this.object = object;
+            this.checks = checks;
+        }
+
+        CertificateRepositoryObject replay(ValidationResult validationResult) {
+            for (ValidationCheck check : checks) {
+                switch (check.getStatus()) {
+                    case ERROR:
+                        validationResult.error(check.getKey(), check.getParams());
+                        break;
+                    case WARNING:
+                        validationResult.warn(check.getKey(), check.getParams());
+                        break;
+                    case PASSED:
+                        validationResult.pass(check.getKey(), check.getParams());
+                        break;
+                    default:
+                        throw new IllegalStateException("unexpected parse check status " + check.getStatus());
+                }
+            }
+            return object;
+        }
+    }
+}
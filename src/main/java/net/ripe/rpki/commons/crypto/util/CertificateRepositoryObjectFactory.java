@@ -44,7 +44,17 @@ import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
 import net.ripe.rpki.commons.util.RepositoryObjectType;
 import net.ripe.rpki.commons.validation.ValidationChecks;
+import net.ripe.rpki.commons.validation.ValidationLocation;
 import net.ripe.rpki.commons.validation.ValidationResult;
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 public final class CertificateRepositoryObjectFactory {
 
@@ -59,11 +69,40 @@ public final class CertificateRepositoryObjectFactory {
      * but its contents can not be parsed.
      */
     public static CertificateRepositoryObject createCertificateRepositoryObject(byte[] encoded, ValidationResult validationResult) {
+        return createCertificateRepositoryObject(encoded, validationResult, null);
+    }
+
+    /**
+     * Like {@link #createCertificateRepositoryObject(byte[], ValidationResult)}, but consults <code>cache</code>
+     * first. On a cache hit the checks recorded when the object was first parsed are added to
+     * <code>validationResult</code> for its current location.
+     *
+     * @param cache the parse cache, or {@code null} to always parse.
+     */
+    public static CertificateRepositoryObject createCertificateRepositoryObject(byte[] encoded, ValidationResult validationResult, CertificateRepositoryObjectCache cache) {
 
         RepositoryObjectType objectType = RepositoryObjectType.parse(validationResult.getCurrentLocation().getName());
 
         ValidationChecks.knownObjectType(objectType, validationResult);
 
+        if (cache == null || objectType == RepositoryObjectType.Unknown) {
+            return parse(objectType, encoded, validationResult);
+        }
+
+        CertificateRepositoryObjectCache.Key key = CertificateRepositoryObjectCache.key(objectType, encoded);
+        CertificateRepositoryObjectCache.Entry cached = cache.get(key);
+        if (cached != null) {
+            return cached.replay(validationResult);
+        }
+
+        final ValidationResult temp = ValidationResult.withLocation(validationResult.getCurrentLocation());
+        CertificateRepositoryObject object = parse(objectType, encoded, temp);
+        cache.put(key, object, temp.getAllValidationChecksForCurrentLocation());
+        validationResult.addAll(temp);
+        return object;
+    }
+
+    private static CertificateRepositoryObject parse(RepositoryObjectType objectType, byte[] encoded, ValidationResult validationResult) {
         switch (objectType) {
             case Manifest:
                 return parseManifest(encoded, validationResult);
@@ -82,6 +121,82 @@ public final class CertificateRepositoryObjectFactory {
         }
     }
 
+    /**
+     * Parses all objects on the common fork/join pool, see {@link #createCertificateRepositoryObjects(Map, ValidationResult, Executor)}.
+     */
+    public static List<CertificateRepositoryObject> createCertificateRepositoryObjects(Map<String, byte[]> encodedByLocation, ValidationResult validationResult) {
+        return createCertificateRepositoryObjects(encodedByLocation, validationResult, ForkJoinPool.commonPool(), null);
+    }
+
+    /**
+     * Parses the DER encoded objects, keyed by location name, in parallel on the given executor. Every object is
+     * parsed into its own {@link ValidationResult}, these are merged into <code>validationResult</code> on the
+     * calling thread once all objects have been parsed.
+     *
+     * @return the parsed objects in the iteration order of <code>encodedByLocation</code>. Objects that could not be
+     * parsed are represented by {@code null}.
+     */
+    public static List<CertificateRepositoryObject> createCertificateRepositoryObjects(Map<String, byte[]> encodedByLocation, ValidationResult validationResult, Executor executor) {
+        return createCertificateRepositoryObjects(encodedByLocation, validationResult, executor, null);
+    }
+
+    /**
+     * Bulk variant of {@link #createCertificateRepositoryObject(byte[], ValidationResult, CertificateRepositoryObjectCache)}.
+     */
+    public static List<CertificateRepositoryObject> createCertificateRepositoryObjects(Map<String, byte[]> encodedByLocation, ValidationResult validationResult, Executor executor, CertificateRepositoryObjectCache cache) {
+        Validate.notNull(encodedByLocation, "encodedByLocation is required");
+        Validate.notNull(executor, "executor is required");
+
+        final boolean storingPassingChecks = validationResult.isStoringPassingChecks();
+        final boolean countingPassingChecks = validationResult.isCountingPassingChecks();
+        final List<CompletableFuture<ParsedObject>> futures = new ArrayList<>(encodedByLocation.size());
+        for (Map.Entry<String, byte[]> entry : encodedByLocation.entrySet()) {
+            final String location = entry.getKey();
+            final byte[] encoded = entry.getValue();
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                ValidationResult result = ValidationResult.withLocation(new ValidationLocation(location));
+                if (countingPassingChecks) {
+                    result.withPassingCheckCounts();
+                } else if (!storingPassingChecks) {
+                    result.withoutStoringPassingChecks();
+                }
+                return new ParsedObject(createCertificateRepositoryObject(encoded, result, cache), result);
+            }, executor));
+        }
+
+        final List<CertificateRepositoryObject> objects = new ArrayList<>(futures.size());
+        for (CompletableFuture<ParsedObject> future : futures) {
+            ParsedObject parsed = join(future);
+            validationResult.addAll(parsed.validationResult);
+            objects.add(parsed.object);
+        }
+        return objects;
+    }
+
+    private static ParsedObject join(CompletableFuture<ParsedObject> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class ParsedObject {
+        private final CertificateRepositoryObject object;
+        private final ValidationResult validationResult;
+
+        private ParsedObject(CertificateRepositoryObject object, ValidationResult validationResult) {
+            this.object = object;
+            this.validationResult = validationResult;
+        }
+    }
+
     private static X509Crl parseCrl(byte[] encoded, ValidationResult validationResult) {
         return X509Crl.parseDerEncoded(encoded, validationResult);
     }
@@ -0,0 +1,197 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.util;
+
+import java.util.Arrays;
+
+/**
+ * Minimal reader for DER encoded data that walks the tag-length-value structure of a <code>byte[]</code> in
+ * place, without building an ASN.1 object tree. Only definite lengths and single byte tags are supported, which
+ * is all DER encoded RPKI objects use.
+ * <p>
+ * The reader is positioned before the first element. {@link #next()} reads the header of the following element,
+ * after which the element can be inspected, sliced or entered with {@link #contents()}.
+ */
+public final class DerReader {
+
+    public static final int BOOLEAN = 0x01;
+    public static final int INTEGER = 0x02;
+    public static final int BIT_STRING = 0x03;
+    public static final int OCTET_STRING = 0x04;
+    public static final int OBJECT_IDENTIFIER = 0x06;
+    public static final int UTC_TIME = 0x17;
+    public static final int GENERALIZED_TIME = 0x18;
+    public static final int SEQUENCE = 0x30;
+    public static final int SET = 0x31;
+
+    private final byte[] encoded;
+    private final int limit;
+    private int position;
+
+    private int tag = -1;
+    private int offset;
+    private int contentOffset;
+    private int contentLength;
+
+    public DerReader(byte[] encoded) {
+        this(encoded, 0, encoded.length);
+    }
+
+    public DerReader(byte[] encoded, int offset, int length) { //NOPMD - ArrayIsStoredDirectly
+        if (offset < 0 || length < 0 || offset + length > encoded.length) {
+            throw new Asn1UtilException("slice out of bounds");
+        }
+        this.encoded = encoded;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    public static int contextTag(int number, boolean constructed) {
+        return 0x80 | (constructed ? 0x20 : 0) | number;
+    }
+
+    public boolean hasNext() {
+        return position < limit;
+    }
+
+    /**
+     * Reads the header of the next element.
+     *
+     * @return the tag of the element
+     */
+    public int next() {
+        if (!hasNext()) {
+            throw new Asn1UtilException("no more elements");
+        }
+        offset = position;
+        int i = position;
+        int t = encoded[i++] & 0xff;
+        if ((t & 0x1f) == 0x1f) {
+            throw new Asn1UtilException("high tag numbers are not supported");
+        }
+        if (i >= limit) {
+            throw new Asn1UtilException("truncated length");
+        }
+        int length = encoded[i++] & 0xff;
+        if (length == 0x80) {
+            throw new Asn1UtilException("indefinite length is not allowed in DER");
+        }
+        if (length > 0x80) {
+            int count = length & 0x7f;
+            if (count > 4 || i + count > limit) {
+                throw new Asn1UtilException("invalid length");
+            }
+            length = 0;
+            for (int n = 0; n < count; n++) {
+                length = (length << 8) | (encoded[i++] & 0xff);
+            }
+            if (length < 0) {
+                throw new Asn1UtilException("invalid length");
+            }
+        }
+        if (length > limit - i) {
+            throw new Asn1UtilException("element exceeds enclosing element");
+        }
+        this.tag = t;
+        this.contentOffset = i;
+        this.contentLength = length;
+        this.position = i + length;
+        return t;
+    }
+
+    /**
+     * Reads the header of the next element and checks its tag.
+     */
+    public DerReader next(int expectedTag) {
+        if (next() != expectedTag) {
+            throw new Asn1UtilException("expected tag " + expectedTag + " but found " + tag);
+        }
+        return this;
+    }
+
+    public int getTag() {
+        return tag;
+    }
+
+    /**
+     * @return offset of the current element, including its tag and length.
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return length of the current element, including its tag and length.
+     */
+    public int getLength() {
+        return contentOffset + contentLength - offset;
+    }
+
+    public int getContentOffset() {
+        return contentOffset;
+    }
+
+    public int getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * @return a reader over the contents of the current element.
+     */
+    public DerReader contents() {
+        return new DerReader(encoded, contentOffset, contentLength);
+    }
+
+    /**
+     * @return a copy of the current element, including its tag and length.
+     */
+    public byte[] getEncoded() {
+        return Arrays.copyOfRange(encoded, offset, contentOffset + contentLength);
+    }
+
+    /**
+     * @return a copy of the contents of the current element.
+     */
+    public byte[] getContents() {
+        return Arrays.copyOfRange(encoded, contentOffset, contentOffset + contentLength);
+    }
+
+    public boolean contentsEqual(byte[] expected) {
+        if (expected.length != contentLength) {
+            return false;
+        }
+        for (int i = 0; i < contentLength; i++) {
+            if (encoded[contentOffset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -30,6 +30,7 @@
 package net.ripe.rpki.commons.crypto.x509cert;
 
 import net.ripe.rpki.commons.crypto.ValidityPeriod;
+import net.ripe.rpki.commons.crypto.util.Fingerprint;
 import net.ripe.rpki.commons.validation.ValidationCheck;
 import net.ripe.rpki.commons.validation.ValidationStatus;
 import net.ripe.rpki.commons.validation.ValidationString;
@@ -49,6 +50,8 @@ import java.security.SignatureException;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 
 public abstract class AbstractX509CertificateWrapper implements Serializable {
 
@@ -62,6 +65,36 @@ public abstract class AbstractX509CertificateWrapper implements Serializable {
 
     private final boolean ca;
 
+    // Indexes of the values memoized by decoded(int, Function)
+    private static final int ROOT = 0;
+    private static final int ROUTER = 1;
+    private static final int MANIFEST_URI = 2;
+    private static final int REPOSITORY_URI = 3;
+    private static final int RRDP_NOTIFY_URI = 4;
+    private static final int OBJECT_ISSUER = 5;
+    private static final int SUBJECT_KEY_IDENTIFIER = 6;
+    private static final int AUTHORITY_KEY_IDENTIFIER = 7;
+    private static final int SUBJECT = 8;
+    private static final int ISSUER = 9;
+    private static final int PUBLIC_KEY = 10;
+    private static final int VALIDITY_PERIOD = 11;
+    private static final int SERIAL_NUMBER = 12;
+    private static final int AUTHORITY_INFORMATION_ACCESS = 13;
+    private static final int SUBJECT_INFORMATION_ACCESS = 14;
+    private static final int CRL_DISTRIBUTION_POINTS = 15;
+    private static final int RSYNC_CRL_DISTRIBUTION_POINT = 16;
+    private static final int DECODED_VALUE_COUNT = 17;
+
+    private static final Object NULL = new Object();
+
+    /**
+     * Values decoded from the certificate on first use. The certificate is immutable, so racing threads decode the
+     * same value and it does not matter which one is kept.
+     */
+    private transient volatile AtomicReferenceArray<Object> decodedValues;
+
+    private transient volatile Fingerprint fingerprint;
+
     protected AbstractX509CertificateWrapper(X509Certificate certificate) {
         Validate.notNull(certificate);
         this.certificate = certificate;
@@ -80,13 +113,49 @@ public abstract class AbstractX509CertificateWrapper implements Serializable {
         }
     }
 
+    /**
+     * @return the SHA-256 fingerprint of the encoded certificate, computed on first use.
+     */
+    public Fingerprint getFingerprint() {
+        Fingerprint result = fingerprint;
+        if (result == null) {
+            result = Fingerprint.of(getEncoded());
+            fingerprint = result;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V decoded(int index, Function<X509Certificate, V> decoder) {
+        AtomicReferenceArray<Object> values = decodedValues;
+        if (values == null) {
+            values = new AtomicReferenceArray<>(DECODED_VALUE_COUNT);
+            decodedValues = values;
+        }
+        Object value = values.get(index);
+        if (value == null) {
+            V decodedValue = decoder.apply(certificate);
+            value = decodedValue == null ? NULL : decodedValue;
+            values.set(index, value);
+        }
+        return value == NULL ? null : (V) value;
+    }
+
+    private static <T> T[] copyOf(T[] values) {
+        return values == null ? null : values.clone();
+    }
+
+    private static byte[] copyOf(byte[] value) {
+        return value == null ? null : value.clone();
+    }
+
     public ASN1ObjectIdentifier getCertificatePolicy() {
         return POLICY_OID;
     }
 
     @Override
     public int hashCode() {
-        return certificate.hashCode();
+        return getFingerprint().hashCode();
     }
 
     @Override
@@ -98,7 +167,7 @@ public abstract class AbstractX509CertificateWrapper implements Serializable {
             return false;
         }
         final AbstractX509CertificateWrapper other = (AbstractX509CertificateWrapper) obj;
-        return certificate.equals(other.certificate);
+        return certificate == other.certificate || getFingerprint().equals(other.getFingerprint());
     }
 
     @Override
@@ -115,59 +184,59 @@ public abstract class AbstractX509CertificateWrapper implements Serializable {
     }
 
     public boolean isRoot() {
-        return X509CertificateUtil.isRoot(certificate);
+        return decoded(ROOT, X509CertificateUtil::isRoot);
     }
 
     public boolean isRouter() {
-        return X509CertificateUtil.isRouter(certificate);
+        return decoded(ROUTER, X509CertificateUtil::isRouter);
     }
 
     public URI getManifestUri() {
-        return X509CertificateUtil.getManifestUri(certificate);
+        return decoded(MANIFEST_URI, X509CertificateUtil::getManifestUri);
     }
 
     public URI getRepositoryUri() {
-        return X509CertificateUtil.getRepositoryUri(certificate);
+        return decoded(REPOSITORY_URI, X509CertificateUtil::getRepositoryUri);
     }
 
     public URI getRrdpNotifyUri() {
-        return X509CertificateUtil.getRrdpNotifyUri(certificate);
+        return decoded(RRDP_NOTIFY_URI, X509CertificateUtil::getRrdpNotifyUri);
     }
 
     public boolean isObjectIssuer() {
-        return X509CertificateUtil.isObjectIssuer(certificate);
+        return decoded(OBJECT_ISSUER, X509CertificateUtil::isObjectIssuer);
     }
 
     public byte[] getSubjectKeyIdentifier() {
-        return X509CertificateUtil.getSubjectKeyIdentifier(certificate);
+        return copyOf(decoded(SUBJECT_KEY_IDENTIFIER, X509CertificateUtil::getSubjectKeyIdentifier));
     }
 
     public byte[] getAuthorityKeyIdentifier() {
-        return X509CertificateUtil.getAuthorityKeyIdentifier(certificate);
+        return copyOf(decoded(AUTHORITY_KEY_IDENTIFIER, X509CertificateUtil::getAuthorityKeyIdentifier));
     }
 
     public X500Principal getSubject() {
-        return X509CertificateUtil.getSubject(certificate);
+        return decoded(SUBJECT, X509CertificateUtil::getSubject);
     }
 
     public X500Principal getIssuer() {
-        return X509CertificateUtil.getIssuer(certificate);
+        return decoded(ISSUER, X509CertificateUtil::getIssuer);
     }
 
     public PublicKey getPublicKey() {
-        return X509CertificateUtil.getPublicKey(certificate);
+        return decoded(PUBLIC_KEY, X509CertificateUtil::getPublicKey);
     }
 
     public ValidityPeriod getValidityPeriod() {
-        return X509CertificateUtil.getValidityPeriod(certificate);
+        return decoded(VALIDITY_PERIOD, X509CertificateUtil::getValidityPeriod);
     }
 
     public BigInteger getSerialNumber() {
-        return X509CertificateUtil.getSerialNumber(certificate);
+        return decoded(SERIAL_NUMBER, X509CertificateUtil::getSerialNumber);
     }
 
     public X509CertificateInformationAccessDescriptor[] getAuthorityInformationAccess() {
-        return X509CertificateUtil.getAuthorityInformationAccess(certificate);
+        return copyOf(decoded(AUTHORITY_INFORMATION_ACCESS, X509CertificateUtil::getAuthorityInformationAccess));
     }
 
     public URI findFirstAuthorityInformationAccessByMethod(ASN1ObjectIdentifier method) {
@@ -175,7 +244,7 @@ public abstract class AbstractX509CertificateWrapper implements Serializable {
     }
 
     public X509CertificateInformationAccessDescriptor[] getSubjectInformationAccess() {
-        return X509CertificateUtil.getSubjectInformationAccess(certificate);
+        return copyOf(decoded(SUBJECT_INFORMATION_ACCESS, X509CertificateUtil::getSubjectInformationAccess));
     }
 
     public URI findFirstSubjectInformationAccessByMethod(ASN1ObjectIdentifier method) {
@@ -183,11 +252,11 @@ public abstract class AbstractX509CertificateWrapper implements Serializable {
     }
 
     public URI[] getCrlDistributionPoints() {
-        return X509CertificateUtil.getCrlDistributionPoints(certificate);
+        return copyOf(decoded(CRL_DISTRIBUTION_POINTS, X509CertificateUtil::getCrlDistributionPoints));
     }
 
     public URI findFirstRsyncCrlDistributionPoint() {
-        return X509CertificateUtil.findFirstRsyncCrlDistributionPoint(certificate);
+        return decoded(RSYNC_CRL_DISTRIBUTION_POINT, X509CertificateUtil::findFirstRsyncCrlDistributionPoint);
     }
 
     public void verify(PublicKey publicKey) throws InvalidKeyException, SignatureException {
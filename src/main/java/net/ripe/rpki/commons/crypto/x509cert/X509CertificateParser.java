@@ -31,6 +31,8 @@ package net.ripe.rpki.commons.crypto.x509cert;
 
 import net.ripe.rpki.commons.crypto.rfc3779.ResourceExtensionEncoder;
 import net.ripe.rpki.commons.crypto.rfc8209.RouterExtensionEncoder;
+import net.ripe.rpki.commons.metrics.RpkiMetrics;
+import net.ripe.rpki.commons.util.RepositoryObjectType;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import org.apache.commons.lang.ArrayUtils;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
@@ -69,8 +71,19 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
 
     public void parse(ValidationResult validationResult, byte[] encoded) {
         this.result = validationResult;
+        long startTime = RpkiMetrics.startTimer();
         final X509Certificate certificate = parseEncoded(encoded, result);
         validateX509Certificate(validationResult, certificate);
+        RpkiMetrics.recordParsed(RepositoryObjectType.Certificate, encoded, !validationResult.hasFailureForCurrentLocation(), startTime);
+    }
+
+    /**
+     * Validates an already decoded certificate, recording the same checks as {@link #parse(ValidationResult, byte[])}.
+     */
+    public void parse(ValidationResult validationResult, X509Certificate certificate) {
+        this.result = validationResult;
+        result.rejectIfNull(certificate, CERTIFICATE_PARSED);
+        validateX509Certificate(validationResult, certificate);
     }
 
     public void validateX509Certificate(ValidationResult validationResult, X509Certificate certificate) {
@@ -84,8 +97,10 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
     }
 
     public static X509GenericCertificate parseCertificate(ValidationResult result, byte[] encoded) {
+        long startTime = RpkiMetrics.startTimer();
         final X509Certificate certificate = parseEncoded(encoded, result);
         if (result.hasFailureForCurrentLocation()) {
+            RpkiMetrics.recordParsed(RepositoryObjectType.Certificate, encoded, false, startTime);
             return null;
         }
 
@@ -98,7 +113,9 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
 
         parser.validateX509Certificate(result, certificate);
 
-        return result.hasFailureForCurrentLocation() ? null : parser.getCertificate();
+        boolean success = !result.hasFailureForCurrentLocation();
+        RpkiMetrics.recordParsed(RepositoryObjectType.Certificate, encoded, success, startTime);
+        return success ? parser.getCertificate() : null;
     }
 
     protected void validatePublicKey() {
@@ -111,7 +128,7 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
         result.rejectIfFalse(rsaPk, PUBLIC_KEY_CERT_ALGORITHM, publicKey.getAlgorithm());
         if (rsaPk) {
             RSAPublicKey rsaPublicKey = (RSAPublicKey) publicKey;
-            result.warnIfFalse(2048 == rsaPublicKey.getModulus().bitLength(), PUBLIC_KEY_CERT_SIZE, String.valueOf(rsaPublicKey.getModulus().bitLength()));
+            result.warnIfFalse(2048 == rsaPublicKey.getModulus().bitLength(), PUBLIC_KEY_CERT_SIZE, rsaPublicKey.getModulus().bitLength());
         }
     }
 
@@ -152,7 +169,11 @@ public abstract class X509CertificateParser<T extends AbstractX509CertificateWra
     }
 
     public static X509Certificate parseX509Certificate(byte[] encoded) {
-        try (InputStream input = new ByteArrayInputStream(encoded)) {
+        return parseX509Certificate(new ByteArrayInputStream(encoded));
+    }
+
+    public static X509Certificate parseX509Certificate(InputStream encoded) {
+        try (InputStream input = encoded) {
             final CertificateFactory factory = CertificateFactory.getInstance("X.509");
             return (X509Certificate) factory.generateCertificate(input);
         } catch (final CertificateException | IOException e) {
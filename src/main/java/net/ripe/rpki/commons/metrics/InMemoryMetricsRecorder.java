@@ -0,0 +1,148 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.metrics;
+
+import net.ripe.rpki.commons.util.RepositoryObjectType;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps counters and distributions (for timers and histograms) in memory. Distributions use power of two buckets,
+ * so percentiles are approximate.
+ */
+public final class InMemoryMetricsRecorder implements MetricsRecorder {
+
+    private final ConcurrentHashMap<MetricKey, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<MetricKey, Distribution> distributions = new ConcurrentHashMap<>();
+
+    @Override
+    public void incrementCounter(String name, RepositoryObjectType objectType) {
+        counters.computeIfAbsent(new MetricKey(name, objectType), (x) -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void recordTime(String name, RepositoryObjectType objectType, long durationNanos) {
+        recordValue(name, objectType, durationNanos);
+    }
+
+    @Override
+    public void recordValue(String name, RepositoryObjectType objectType, long value) {
+        distributions.computeIfAbsent(new MetricKey(name, objectType), (x) -> new Distribution()).record(value);
+    }
+
+    public long getCounter(String name, RepositoryObjectType objectType) {
+        LongAdder counter = counters.get(new MetricKey(name, objectType));
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * @return the distribution of the recorded times or values, or {@code null} if nothing was recorded.
+     */
+    public Distribution getDistribution(String name, RepositoryObjectType objectType) {
+        return distributions.get(new MetricKey(name, objectType));
+    }
+
+    public void reset() {
+        counters.clear();
+        distributions.clear();
+    }
+
+    public static final class Distribution {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+        private final AtomicLongArray buckets = new AtomicLongArray(Long.SIZE);
+
+        private void record(long value) {
+            count.increment();
+            total.add(value);
+            max.accumulate(value);
+            buckets.incrementAndGet(value <= 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value));
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getTotal() {
+            return total.sum();
+        }
+
+        public long getMax() {
+            return max.get();
+        }
+
+        /**
+         * @return an upper bound for the given percentile (0 - 100) of the recorded values, within a factor of two.
+         */
+        public long getPercentileUpperBound(double percentile) {
+            long target = (long) Math.ceil(getCount() * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length(); i++) {
+                seen += buckets.get(i);
+                if (seen >= target && seen > 0) {
+                    return i == 0 ? 0 : Math.min(getMax(), (1L << i) - 1);
+                }
+            }
+            return getMax();
+        }
+    }
+
+    private static final class MetricKey {
+        private final String name;
+        private final RepositoryObjectType objectType;
+
+        private MetricKey(String name, RepositoryObjectType objectType) {
+            this.name = name;
+            this.objectType = objectType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey that = (MetricKey) o;
+            return name.equals(that.name) && objectType == that.objectType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + (objectType == null ? 0 : objectType.hashCode());
+        }
+    }
+}
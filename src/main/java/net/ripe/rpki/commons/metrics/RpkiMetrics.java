@@ -0,0 +1,97 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.metrics;
+
+import net.ripe.rpki.commons.util.RepositoryObjectType;
+
+/**
+ * Names of the metrics recorded by this library and the globally installed {@link MetricsRecorder}.
+ */
+public final class RpkiMetrics {
+
+    /** Timer: decoding and parse checks of an object. */
+    public static final String PARSE_TIME = "rpki.object.parse.time";
+
+    /** Counter: objects that could not be parsed. */
+    public static final String PARSE_FAILURES = "rpki.object.parse.failures";
+
+    /** Histogram: size in bytes of the parsed objects. */
+    public static final String OBJECT_SIZE = "rpki.object.size";
+
+    /** Timer: verification of a single signature, for CMS signed objects, certificates and CRLs. */
+    public static final String SIGNATURE_VERIFICATION_TIME = "rpki.object.signature.verification.time";
+
+    /** Timer: validation of a certificate against its parent. */
+    public static final String VALIDATION_TIME = "rpki.object.validation.time";
+
+    private static volatile MetricsRecorder recorder = NoOpMetricsRecorder.INSTANCE;
+
+    private RpkiMetrics() {
+    }
+
+    public static MetricsRecorder getRecorder() {
+        return recorder;
+    }
+
+    /**
+     * @param metricsRecorder the recorder to use, or {@code null} to stop recording metrics.
+     */
+    public static void setRecorder(MetricsRecorder metricsRecorder) {
+        recorder = metricsRecorder == null ? NoOpMetricsRecorder.INSTANCE : metricsRecorder;
+    }
+
+    /**
+     * @return the start time to pass to {@link #recordTime(String, RepositoryObjectType, long)}, or 0 when metrics
+     * are not recorded.
+     */
+    public static long startTimer() {
+        return recorder.isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    public static void recordTime(String name, RepositoryObjectType objectType, long startTime) {
+        if (startTime != 0L) {
+            recorder.recordTime(name, objectType, System.nanoTime() - startTime);
+        }
+    }
+
+    public static void recordParsed(RepositoryObjectType objectType, byte[] encoded, boolean success, long startTime) {
+        MetricsRecorder current = recorder;
+        if (startTime == 0L || !current.isEnabled()) {
+            return;
+        }
+        current.recordTime(PARSE_TIME, objectType, System.nanoTime() - startTime);
+        if (encoded != null) {
+            current.recordValue(OBJECT_SIZE, objectType, encoded.length);
+        }
+        if (!success) {
+            current.incrementCounter(PARSE_FAILURES, objectType);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation;
+
+import org.apache.commons.lang.Validate;
+
+import java.net.URI;
+
+/**
+ * Validation result that can be written to by multiple threads at the same time, without merging per-task results
+ * using {@link ValidationResult#addAll(ValidationResult)}.
+ *
+ * Every thread obtains its own writer using {@link #forLocation(ValidationLocation)}. Writers are regular
+ * {@link ValidationResult} instances with their own current location, backed by the concurrent storage of this
+ * result. A single writer must not be shared between threads. The failure, warning and passed counts of a writer,
+ * such as {@link ValidationResult#hasFailures()}, only cover the checks recorded through that writer. The checks and
+ * the totals of all writers are available through {@link #getValidationResult()}, which gives a consistent view
+ * once all writers are done.
+ */
+public final class ConcurrentValidationResult {
+
+    private final ValidationResult storage;
+
+    private volatile boolean shared;
+
+    private ConcurrentValidationResult(ValidationLocation location) {
+        this.storage = ValidationResult.withLocation(location);
+    }
+
+    public static ConcurrentValidationResult withLocation(ValidationLocation location) {
+        return new ConcurrentValidationResult(location);
+    }
+
+    public static ConcurrentValidationResult withLocation(URI uri) {
+        return new ConcurrentValidationResult(new ValidationLocation(uri));
+    }
+
+    public static ConcurrentValidationResult withLocation(String name) {
+        return new ConcurrentValidationResult(new ValidationLocation(name));
+    }
+
+    /**
+     * @see ValidationResult#withoutStoringPassingChecks()
+     */
+    public synchronized ConcurrentValidationResult withoutStoringPassingChecks() {
+        Validate.isTrue(!shared, "storage mode must be set before creating writers");
+        storage.withoutStoringPassingChecks();
+        return this;
+    }
+
+    /**
+     * @see ValidationResult#withPassingCheckCounts()
+     */
+    public synchronized ConcurrentValidationResult withPassingCheckCounts() {
+        Validate.isTrue(!shared, "storage mode must be set before creating writers");
+        storage.withPassingCheckCounts();
+        return this;
+    }
+
+    /**
+     * @see ValidationResult#retainingOnlyErrors()
+     */
+    public synchronized ConcurrentValidationResult retainingOnlyErrors() {
+        Validate.isTrue(!shared, "storage mode must be set before creating writers");
+        storage.retainingOnlyErrors();
+        return this;
+    }
+
+    /**
+     * @see ValidationResult#withLocationPool(ValidationLocationPool)
+     */
+    public synchronized ConcurrentValidationResult withLocationPool(ValidationLocationPool pool) {
+        Validate.isTrue(!shared, "storage mode must be set before creating writers");
+        storage.withLocationPool(pool);
+        return this;
+    }
+
+    /**
+     * @see ValidationResult#withUnorderedLocations()
+     */
+    public synchronized ConcurrentValidationResult withUnorderedLocations() {
+        Validate.isTrue(!shared, "storage mode must be set before creating writers");
+        storage.withUnorderedLocations();
+        return this;
+    }
+
+    /**
+     * @see ValidationResult#withListener(ValidationListener)
+     */
+    public synchronized ConcurrentValidationResult withListener(ValidationListener listener) {
+        Validate.isTrue(!shared, "listeners must be added before creating writers");
+        storage.withListener(listener);
+        return this;
+    }
+
+    /**
+     * @return a new writer, for use by a single thread, with its current location set to <code>location</code>.
+     */
+    public ValidationResult forLocation(ValidationLocation location) {
+        return new ValidationResult(getSharedStorage(), location);
+    }
+
+    public ValidationResult forLocation(URI uri) {
+        return forLocation(new ValidationLocation(uri));
+    }
+
+    public ValidationResult forLocation(String name) {
+        return forLocation(new ValidationLocation(name));
+    }
+
+    /**
+     * @return a view of all checks, with its current location set to the location of this result.
+     */
+    public ValidationResult getValidationResult() {
+        return getSharedStorage();
+    }
+
+    private ValidationResult getSharedStorage() {
+        if (!shared) {
+            synchronized (this) {
+                if (!shared) {
+                    storage.concurrent();
+                    shared = true;
+                }
+            }
+        }
+        return storage;
+    }
+}
@@ -91,6 +91,9 @@ public class ValidationLocation implements Serializable, Comparable<ValidationLo
 
     @Override
     public int compareTo(ValidationLocation o) {
+        if (this == o) {
+            return 0;
+        }
         return this.name.compareTo(o.name);
     }
 }
@@ -0,0 +1,69 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation;
+
+import org.apache.commons.lang.Validate;
+
+import java.net.URI;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pool of canonical {@link ValidationLocation} instances, so that a location that is used for many checks is only
+ * kept in memory once and map lookups can short-circuit on identity.
+ *
+ * This class is thread-safe.
+ */
+public final class ValidationLocationPool {
+
+    private final ConcurrentHashMap<String, ValidationLocation> locations = new ConcurrentHashMap<>();
+
+    public ValidationLocation intern(ValidationLocation location) {
+        Validate.notNull(location, "location is required");
+        ValidationLocation existing = locations.putIfAbsent(location.getName(), location);
+        return existing == null ? location : existing;
+    }
+
+    public ValidationLocation get(String name) {
+        ValidationLocation existing = locations.get(name);
+        return existing == null ? intern(new ValidationLocation(name)) : existing;
+    }
+
+    public ValidationLocation get(URI uri) {
+        return get(uri.toString());
+    }
+
+    public int size() {
+        return locations.size();
+    }
+
+    public void clear() {
+        locations.clear();
+    }
+}
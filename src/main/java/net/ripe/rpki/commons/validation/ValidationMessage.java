@@ -29,10 +29,13 @@
  */
 package net.ripe.rpki.commons.validation;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.text.MessageFormat;
 import java.util.Locale;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 public final class ValidationMessage {
@@ -40,6 +43,12 @@ public final class ValidationMessage {
     private static final String MESSAGE_BUNDLE_NAME = "validation";
     private static final Locale DEFAULT_LOCALE = Locale.ENGLISH;
 
+    /**
+     * Compiled message formats per locale and message key. A MessageFormat is not thread-safe, so formatting
+     * synchronizes on the cached instance.
+     */
+    private static final ConcurrentHashMap<Locale, ConcurrentHashMap<String, MessageFormat>> FORMATS = new ConcurrentHashMap<>();
+
     private ValidationMessage() {
     }
 
@@ -48,17 +57,51 @@ public final class ValidationMessage {
     }
 
     public static String getMessage(ValidationCheck validationCheck, Locale locale) {
-        ResourceBundle messages = null;
-        if (locale != null) {
-            try {
-                messages = ResourceBundle.getBundle(MESSAGE_BUNDLE_NAME, locale);
-            } catch (MissingResourceException e) {
+        MessageFormat format = getMessageFormat(validationCheck, locale == null ? DEFAULT_LOCALE : locale);
+        synchronized (format) {
+            return format.format(validationCheck.getParams());
+        }
+    }
+
+    /**
+     * Writes the message of every check stored in <code>validationResult</code>, one line per check with the
+     * location, status and message separated by tabs.
+     */
+    public static void writeMessages(ValidationResult validationResult, Locale locale, Writer out) throws IOException {
+        for (ValidationLocation location : validationResult.getValidatedLocations()) {
+            for (ValidationCheck check : validationResult.getAllValidationChecksForLocation(location)) {
+                out.write(location.getName());
+                out.write('\t');
+                out.write(check.getStatus().getMessageKey());
+                out.write('\t');
+                out.write(getMessage(check, locale));
+                out.write('\n');
             }
         }
-        if (messages == null) {
-            messages = ResourceBundle.getBundle(MESSAGE_BUNDLE_NAME, DEFAULT_LOCALE);
+        out.flush();
+    }
+
+    private static MessageFormat getMessageFormat(ValidationCheck validationCheck, Locale locale) {
+        String messageKey = validationCheck.getKey() + "." + validationCheck.getStatus().getMessageKey();
+        ConcurrentHashMap<String, MessageFormat> formats = FORMATS.computeIfAbsent(locale, (x) -> new ConcurrentHashMap<>());
+        MessageFormat format = formats.get(messageKey);
+        if (format == null) {
+            format = new MessageFormat(getBundle(locale).getString(messageKey));
+            MessageFormat existing = formats.putIfAbsent(messageKey, format);
+            if (existing != null) {
+                format = existing;
+            }
         }
+        return format;
+    }
 
-        return MessageFormat.format(messages.getString(validationCheck.getKey() + "." + validationCheck.getStatus().getMessageKey()), (Object[]) validationCheck.getParams());
+    private static ResourceBundle getBundle(Locale locale) {
+        if (locale != DEFAULT_LOCALE) {
+            try {
+                return ResourceBundle.getBundle(MESSAGE_BUNDLE_NAME, locale);
+            } catch (MissingResourceException e) {
+            }
+        }
+        return ResourceBundle.getBundle(MESSAGE_BUNDLE_NAME, DEFAULT_LOCALE);
     }
 }
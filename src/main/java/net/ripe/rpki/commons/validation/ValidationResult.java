@@ -34,16 +34,23 @@ import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.joda.time.DateTimeUtils;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
 
 public final class ValidationResult implements Serializable {
 
@@ -59,10 +66,66 @@ public final class ValidationResult implements Serializable {
 
     private boolean storingPassingChecks = true;
 
+    private boolean storingWarnings = true;
+
+    private transient List<ValidationListener> listeners;
+
+    private transient ValidationLocationPool locationPool;
+
+    private boolean orderedLocations = true;
+
+    private Map<String, PassCount> passCounts;
+
+    private boolean concurrent;
+
+    private CheckCounts counts = new CheckCounts();
+
+    /**
+     * Errors and warnings per location, including the warnings that are not stored. Passed checks are only counted
+     * for all locations.
+     */
+    private Map<ValidationLocation, CheckCounts> locationCounts = new TreeMap<>();
+
     private ValidationResult(ValidationLocation location) {
         setLocation(location);
     }
 
+    /**
+     * Creates a writer for the storage of <code>that</code>, see {@link ConcurrentValidationResult}.
+     */
+    ValidationResult(ValidationResult that, ValidationLocation location) {
+        Validate.isTrue(that.concurrent, "storage is not shared");
+        this.results = that.results;
+        this.metrics = that.metrics;
+        this.storingPassingChecks = that.storingPassingChecks;
+        this.storingWarnings = that.storingWarnings;
+        this.listeners = that.listeners;
+        this.locationPool = that.locationPool;
+        this.orderedLocations = that.orderedLocations;
+        this.passCounts = that.passCounts;
+        this.counts = new WriterCheckCounts(that.counts);
+        this.locationCounts = that.locationCounts;
+        this.concurrent = true;
+        setLocation(location);
+    }
+
+    /**
+     * Switches this result to concurrent storage, so that writers created with
+     * {@link #ValidationResult(ValidationResult, ValidationLocation)} can share it.
+     */
+    ValidationResult concurrent() {
+        Validate.isTrue(results.isEmpty() && metrics.isEmpty(), "results must be empty");
+        this.results = orderedLocations ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+        this.metrics = orderedLocations ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+        this.locationCounts = orderedLocations ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+        if (this.passCounts != null) {
+            this.passCounts = new ConcurrentHashMap<>();
+        }
+        this.counts = new ConcurrentCheckCounts();
+        this.concurrent = true;
+        return this;
+    }
+
     public static ValidationResult withLocation(URI uri) {
         return new ValidationResult(new ValidationLocation(uri));
     }
@@ -76,6 +139,7 @@ public final class ValidationResult implements Serializable {
     }
 
     public ValidationResult withoutStoringPassingChecks() {
+        Validate.isTrue(!concurrent, "cannot change the storage mode of a concurrent validation result");
         if (this.storingPassingChecks) {
             this.storingPassingChecks = false;
             for (ResultsPerLocation entry : this.results.values()) {
@@ -85,17 +149,137 @@ public final class ValidationResult implements Serializable {
         return this;
     }
 
+    /**
+     * Stops storing passing checks, but keeps a count of the passed checks per key for all locations. Passing checks
+     * stored so far are counted and discarded.
+     */
+    public ValidationResult withPassingCheckCounts() {
+        Validate.isTrue(!concurrent, "cannot change the storage mode of a concurrent validation result");
+        if (passCounts == null) {
+            passCounts = new HashMap<>();
+            for (ResultsPerLocation entry : this.results.values()) {
+                for (ValidationCheck check : entry.passed) {
+                    countPass(check.getKey(), 1);
+                }
+            }
+        }
+        return withoutStoringPassingChecks();
+    }
+
+    /**
+     * Only keeps errors in memory. Warnings and passing checks are still counted and forwarded to the listeners.
+     */
+    public ValidationResult retainingOnlyErrors() {
+        withoutStoringPassingChecks();
+        if (this.storingWarnings) {
+            this.storingWarnings = false;
+            for (ResultsPerLocation entry : this.results.values()) {
+                entry.warning.clear();
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Forwards every check recorded from now on to <code>listener</code>, regardless of whether the check is stored.
+     */
+    public ValidationResult withListener(ValidationListener listener) {
+        Validate.notNull(listener, "listener is required");
+        Validate.isTrue(!concurrent, "cannot add listeners to a concurrent validation result");
+        List<ValidationListener> updated = listeners == null ? new ArrayList<>(1) : new ArrayList<>(listeners);
+        updated.add(listener);
+        this.listeners = Collections.unmodifiableList(updated);
+        return this;
+    }
+
+    /**
+     * Replaces every location used with this result by the canonical instance from <code>pool</code>.
+     */
+    public ValidationResult withLocationPool(ValidationLocationPool pool) {
+        Validate.notNull(pool, "pool is required");
+        Validate.isTrue(!concurrent, "cannot change the storage mode of a concurrent validation result");
+        this.locationPool = pool;
+        this.results = copyOf(results, pool);
+        this.metrics = copyOf(metrics, pool);
+        this.locationCounts = copyOf(locationCounts, pool);
+        return setLocation(currentLocation);
+    }
+
+    /**
+     * Stores the checks in hash maps instead of sorted maps, so {@link #getValidatedLocations()} is no longer sorted.
+     */
+    public ValidationResult withUnorderedLocations() {
+        Validate.isTrue(!concurrent, "cannot change the storage mode of a concurrent validation result");
+        if (this.orderedLocations) {
+            this.orderedLocations = false;
+            this.results = copyOf(results, locationPool);
+            this.metrics = copyOf(metrics, locationPool);
+            this.locationCounts = copyOf(locationCounts, locationPool);
+        }
+        return this;
+    }
+
+    private <T> Map<ValidationLocation, T> copyOf(Map<ValidationLocation, T> map, ValidationLocationPool pool) {
+        Map<ValidationLocation, T> copy = orderedLocations ? new TreeMap<>() : new HashMap<>();
+        for (Entry<ValidationLocation, T> entry : map.entrySet()) {
+            copy.put(pool == null ? entry.getKey() : pool.intern(entry.getKey()), entry.getValue());
+        }
+        return copy;
+    }
+
+    private ValidationLocation canonical(ValidationLocation location) {
+        if (locationPool == null || location == currentLocation) {
+            return location;
+        }
+        return locationPool.intern(location);
+    }
+
     public boolean isStoringPassingChecks() {
         return storingPassingChecks;
     }
 
+    public boolean isStoringWarnings() {
+        return storingWarnings;
+    }
+
+    public boolean isCountingPassingChecks() {
+        return passCounts != null;
+    }
+
+    private void countPass(String key, int count) {
+        PassCount passCount = passCounts.computeIfAbsent(key, (x) -> new PassCount());
+        if (concurrent) {
+            synchronized (passCount) {
+                passCount.count += count;
+            }
+        } else {
+            passCount.count += count;
+        }
+    }
+
     public ValidationResult setLocation(ValidationLocation location) {
-        currentLocation = location;
+        currentLocation = locationPool == null ? location : locationPool.intern(location);
         return this;
     }
 
     private ResultsPerLocation getCurrentResults() {
-        return results.computeIfAbsent(currentLocation, (x) -> new ResultsPerLocation());
+        return getResults(currentLocation);
+    }
+
+    private ResultsPerLocation getResults(ValidationLocation location) {
+        return results.computeIfAbsent(canonical(location), (x) -> new ResultsPerLocation(concurrent));
+    }
+
+    private CheckCounts getCounts(ValidationLocation location) {
+        return locationCounts.computeIfAbsent(canonical(location), (x) -> concurrent ? new ConcurrentCheckCounts() : new CheckCounts());
+    }
+
+    private void notifyListeners(ValidationLocation location, ValidationCheck check) {
+        if (listeners != null) {
+            for (ValidationListener listener : listeners) {
+                listener.checkRecorded(location, check);
+            }
+        }
     }
 
     public ValidationResult pass(String key) {
@@ -103,8 +287,18 @@ public final class ValidationResult implements Serializable {
     }
 
     public ValidationResult pass(String key, String... param) {
+        counts.addPassed(1);
         if (storingPassingChecks) {
-            getCurrentResults().passed.add(new ValidationCheck(ValidationStatus.PASSED, key, param));
+            ValidationCheck check = new ValidationCheck(ValidationStatus.PASSED, key, param);
+            getCurrentResults().passed.add(check);
+            notifyListeners(currentLocation, check);
+        } else {
+            if (passCounts != null) {
+                countPass(key, 1);
+            }
+            if (listeners != null) {
+                notifyListeners(currentLocation, new ValidationCheck(ValidationStatus.PASSED, key, param));
+            }
         }
         return this;
     }
@@ -114,8 +308,7 @@ public final class ValidationResult implements Serializable {
     }
 
     public ValidationResult warn(String key, String... param) {
-        getCurrentResults().warning.add(new ValidationCheck(ValidationStatus.WARNING, key, param));
-        return this;
+        return warnForLocation(currentLocation, key, param);
     }
 
     public ValidationResult error(String key) {
@@ -123,8 +316,7 @@ public final class ValidationResult implements Serializable {
     }
 
     public ValidationResult error(String key, String... param) {
-        getCurrentResults().error.add(new ValidationCheck(ValidationStatus.ERROR, key, param));
-        return this;
+        return rejectForLocation(currentLocation, key, param);
     }
 
     public boolean warnIfFalse(boolean condition, String key) {
@@ -141,6 +333,20 @@ public final class ValidationResult implements Serializable {
         return condition;
     }
 
+    /**
+     * Like {@link #warnIfFalse(boolean, String, String...)}, but the parameters are only formatted when the check is
+     * stored. Parameters can be any object, or a {@link Supplier} of the parameter.
+     */
+    public boolean warnIfFalse(boolean condition, String key, Object... param) {
+        Validate.notNull(key, "key is required");
+        if (condition) {
+            passLazily(key, param);
+        } else {
+            warn(key, format(param));
+        }
+        return condition;
+    }
+
     public boolean warnIfTrue(boolean condition, String key) {
         return warnIfTrue(condition, key, EMPTY_PARAM);
     }
@@ -149,6 +355,10 @@ public final class ValidationResult implements Serializable {
         return warnIfFalse(!condition, key, param);
     }
 
+    public boolean warnIfTrue(boolean condition, String key, Object... param) {
+        return warnIfFalse(!condition, key, param);
+    }
+
     public boolean warnIfNull(Object object, String key) {
         return warnIfNull(object, key, EMPTY_PARAM);
     }
@@ -157,6 +367,10 @@ public final class ValidationResult implements Serializable {
         return warnIfTrue(object == null, key, param);
     }
 
+    public boolean warnIfNull(Object object, String key, Object... param) {
+        return warnIfTrue(object == null, key, param);
+    }
+
     public boolean warnIfNotNull(Object object, String key) {
         return warnIfNotNull(object, key, EMPTY_PARAM);
     }
@@ -165,13 +379,20 @@ public final class ValidationResult implements Serializable {
         return warnIfTrue(object != null, key, param);
     }
 
+    public boolean warnIfNotNull(Object object, String key, Object... param) {
+        return warnIfTrue(object != null, key, param);
+    }
+
     public ValidationResult rejectForLocation(ValidationLocation location, String key) {
         return rejectForLocation(location, key, EMPTY_PARAM);
     }
 
     public ValidationResult rejectForLocation(ValidationLocation location, String key, String... param) {
-        ResultsPerLocation resultsPerLocation = results.computeIfAbsent(location, (x) -> new ResultsPerLocation());
-        resultsPerLocation.error.add(new ValidationCheck(ValidationStatus.ERROR, key, param));
+        ValidationCheck check = new ValidationCheck(ValidationStatus.ERROR, key, param);
+        getResults(location).error.add(check);
+        counts.addErrors(1);
+        getCounts(location).addErrors(1);
+        notifyListeners(location, check);
         return this;
     }
 
@@ -180,8 +401,13 @@ public final class ValidationResult implements Serializable {
     }
 
     public ValidationResult warnForLocation(ValidationLocation location, String key, String... param) {
-        ResultsPerLocation resultsPerLocation = results.computeIfAbsent(location, (x) -> new ResultsPerLocation());
-        resultsPerLocation.warning.add(new ValidationCheck(ValidationStatus.WARNING, key, param));
+        ValidationCheck check = new ValidationCheck(ValidationStatus.WARNING, key, param);
+        if (storingWarnings) {
+            getResults(location).warning.add(check);
+        }
+        counts.addWarnings(1);
+        getCounts(location).addWarnings(1);
+        notifyListeners(location, check);
         return this;
     }
 
@@ -199,6 +425,20 @@ public final class ValidationResult implements Serializable {
         return condition;
     }
 
+    /**
+     * Like {@link #rejectIfFalse(boolean, String, String...)}, but the parameters are only formatted when the check
+     * is stored. Parameters can be any object, or a {@link Supplier} of the parameter.
+     */
+    public boolean rejectIfFalse(boolean condition, String key, Object... param) {
+        Validate.notNull(key, "key is required");
+        if (condition) {
+            passLazily(key, param);
+        } else {
+            error(key, format(param));
+        }
+        return condition;
+    }
+
     public boolean rejectIfTrue(boolean condition, String key) {
         return rejectIfTrue(condition, key, EMPTY_PARAM);
     }
@@ -207,6 +447,10 @@ public final class ValidationResult implements Serializable {
         return rejectIfFalse(!condition, key, param);
     }
 
+    public boolean rejectIfTrue(boolean condition, String key, Object... param) {
+        return rejectIfFalse(!condition, key, param);
+    }
+
     public boolean rejectIfNull(Object object, String key) {
         return rejectIfNull(object, key, EMPTY_PARAM);
     }
@@ -215,6 +459,10 @@ public final class ValidationResult implements Serializable {
         return rejectIfTrue(object == null, key, param);
     }
 
+    public boolean rejectIfNull(Object object, String key, Object... param) {
+        return rejectIfTrue(object == null, key, param);
+    }
+
     public boolean rejectIfNotNull(Object object, String key) {
         return rejectIfNotNull(object, key, EMPTY_PARAM);
     }
@@ -223,11 +471,28 @@ public final class ValidationResult implements Serializable {
         return rejectIfTrue(object != null, key, param);
     }
 
-    public ValidationResult addMetric(String name, String value) {
-        if (!metrics.containsKey(currentLocation)) {
-            metrics.put(currentLocation, new ArrayList<>());
+    public boolean rejectIfNotNull(Object object, String key, Object... param) {
+        return rejectIfTrue(object != null, key, param);
+    }
+
+    private void passLazily(String key, Object[] param) {
+        pass(key, storingPassingChecks || listeners != null ? format(param) : EMPTY_PARAM);
+    }
+
+    private static String[] format(Object[] param) {
+        if (param.length == 0) {
+            return EMPTY_PARAM;
+        }
+        String[] formatted = new String[param.length];
+        for (int i = 0; i < param.length; i++) {
+            Object value = param[i] instanceof Supplier ? ((Supplier<?>) param[i]).get() : param[i];
+            formatted[i] = String.valueOf(value);
         }
-        metrics.get(currentLocation).add(new ValidationMetric(name, value, DateTimeUtils.currentTimeMillis()));
+        return formatted;
+    }
+
+    public ValidationResult addMetric(String name, String value) {
+        metrics.computeIfAbsent(currentLocation, (x) -> concurrent ? Collections.synchronizedList(new ArrayList<>()) : new ArrayList<>()).add(new ValidationMetric(name, value, DateTimeUtils.currentTimeMillis()));
         return this;
     }
 
@@ -242,21 +507,39 @@ public final class ValidationResult implements Serializable {
     }
 
     public boolean hasFailures() {
-        for (ResultsPerLocation checks: this.results.values()) {
-            if (!checks.error.isEmpty()) {
-                return true;
-            }
-        }
-        return false;
+        return counts.getErrors() > 0;
     }
 
     public boolean hasWarnings() {
-        for (ResultsPerLocation checks: this.results.values()) {
-            if (!checks.warning.isEmpty()) {
-                return true;
-            }
-        }
-        return false;
+        return counts.getWarnings() > 0;
+    }
+
+    public long getFailureCount() {
+        return counts.getErrors();
+    }
+
+    public long getWarningCount() {
+        return counts.getWarnings();
+    }
+
+    /**
+     * @return the number of passed checks for all locations, including the checks that were not stored.
+     */
+    public long getPassedCheckCount() {
+        return counts.getPassed();
+    }
+
+    public int getFailureCount(ValidationLocation location) {
+        CheckCounts checks = locationCounts.get(location);
+        return checks == null ? 0 : (int) checks.getErrors();
+    }
+
+    /**
+     * @return the number of warnings for <code>location</code>, including the warnings that were not stored.
+     */
+    public int getWarningCount(ValidationLocation location) {
+        CheckCounts checks = locationCounts.get(location);
+        return checks == null ? 0 : (int) checks.getWarnings();
     }
 
     public boolean hasNoFailuresOrWarnings() {
@@ -332,6 +615,25 @@ public final class ValidationResult implements Serializable {
         return null;
     }
 
+    /**
+     * @return the number of passed checks with the given key for all locations, only available when counting
+     * passing checks.
+     */
+    public int getPassedCount(String key) {
+        Validate.isTrue(isCountingPassingChecks(), "not counting passing checks");
+        PassCount passCount = passCounts.get(key);
+        return passCount == null ? 0 : passCount.count;
+    }
+
+    public Map<String, Integer> getPassedCounts() {
+        Validate.isTrue(isCountingPassingChecks(), "not counting passing checks");
+        Map<String, Integer> counts = new TreeMap<>();
+        for (Entry<String, PassCount> entry : passCounts.entrySet()) {
+            counts.put(entry.getKey(), entry.getValue().count);
+        }
+        return counts;
+    }
+
     public List<ValidationMetric> getMetrics(ValidationLocation location) {
         if (metrics.containsKey(location)) {
             return Collections.unmodifiableList(metrics.get(location));
@@ -345,16 +647,124 @@ public final class ValidationResult implements Serializable {
         return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
     }
 
+    /**
+     * Results serialized before the storage modes and counts were added only have the stored checks, the counts
+     * are rebuilt from those.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        results = (Map<ValidationLocation, ResultsPerLocation>) fields.get("results", null);
+        currentLocation = (ValidationLocation) fields.get("currentLocation", null);
+        metrics = (Map<ValidationLocation, List<ValidationMetric>>) fields.get("metrics", null);
+        storingPassingChecks = fields.get("storingPassingChecks", true);
+        storingWarnings = fields.get("storingWarnings", true);
+        orderedLocations = fields.get("orderedLocations", true);
+        passCounts = (Map<String, PassCount>) fields.get("passCounts", null);
+        concurrent = fields.get("concurrent", false);
+        counts = (CheckCounts) fields.get("counts", null);
+        if (counts == null) {
+            counts = new CheckCounts();
+            for (ResultsPerLocation checks : results.values()) {
+                counts.addErrors(checks.error.size());
+                counts.addWarnings(checks.warning.size());
+                counts.addPassed(checks.passed.size());
+            }
+        }
+        locationCounts = (Map<ValidationLocation, CheckCounts>) fields.get("locationCounts", null);
+        if (locationCounts == null) {
+            locationCounts = orderedLocations ? new TreeMap<>() : new HashMap<>();
+            for (Entry<ValidationLocation, ResultsPerLocation> entry : results.entrySet()) {
+                restoreLocationCounts(entry.getKey(), entry.getValue().error.size(), entry.getValue().warning.size());
+            }
+        }
+    }
+
+    // Used by ValidationResultCodec
+
+    boolean isOrderingLocations() {
+        return orderedLocations;
+    }
+
+    Set<ValidationLocation> getMetricLocations() {
+        return metrics.keySet();
+    }
+
+    Set<ValidationLocation> getCountedLocations() {
+        return locationCounts.keySet();
+    }
+
+    void restoreLocationCounts(ValidationLocation location, long errors, long warnings) {
+        if (errors == 0 && warnings == 0) {
+            return;
+        }
+        CheckCounts checks = getCounts(location);
+        checks.addErrors(errors);
+        checks.addWarnings(warnings);
+    }
+
+    void restoreLocation(ValidationLocation location) {
+        getResults(location);
+    }
+
+    void restoreCheck(ValidationLocation location, ValidationCheck check) {
+        switch (check.getStatus()) {
+            case ERROR:
+                getResults(location).error.add(check);
+                break;
+            case WARNING:
+                getResults(location).warning.add(check);
+                break;
+            default:
+                getResults(location).passed.add(check);
+                break;
+        }
+    }
+
+    void restoreMetric(ValidationLocation location, ValidationMetric metric) {
+        metrics.computeIfAbsent(canonical(location), (x) -> new ArrayList<>()).add(metric);
+    }
+
+    void restoreCounts(long errors, long warnings, long passed, Map<String, Integer> passedCounts) {
+        counts.addErrors(errors);
+        counts.addWarnings(warnings);
+        counts.addPassed(passed);
+        for (Entry<String, Integer> entry : passedCounts.entrySet()) {
+            countPass(entry.getKey(), entry.getValue());
+        }
+    }
+
     public ValidationResult addAll(ValidationResult that) {
+        counts.addErrors(that.counts.getErrors());
+        counts.addWarnings(that.counts.getWarnings());
+        counts.addPassed(that.counts.getPassed());
+        for (Entry<ValidationLocation, CheckCounts> entry : that.locationCounts.entrySet()) {
+            restoreLocationCounts(entry.getKey(), entry.getValue().getErrors(), entry.getValue().getWarnings());
+        }
+        if (this.passCounts != null && that.passCounts != null) {
+            for (Entry<String, PassCount> entry : that.passCounts.entrySet()) {
+                countPass(entry.getKey(), entry.getValue().count);
+            }
+        }
         for (Entry<ValidationLocation, ResultsPerLocation> resultsByLocation : that.results.entrySet()) {
             ResultsPerLocation thatResults = resultsByLocation.getValue();
-            if (thatResults.error.isEmpty() && thatResults.warning.isEmpty() && (thatResults.passed.isEmpty() || !this.storingPassingChecks)) {
+            if (this.passCounts != null) {
+                for (ValidationCheck check : thatResults.passed) {
+                    countPass(check.getKey(), 1);
+                }
+            }
+            if (listeners != null) {
+                notifyListeners(resultsByLocation.getKey(), thatResults);
+            }
+            if (thatResults.error.isEmpty() && (thatResults.warning.isEmpty() || !this.storingWarnings) && (thatResults.passed.isEmpty() || !this.storingPassingChecks)) {
                 continue;
             }
 
-            ResultsPerLocation thisResults = results.computeIfAbsent(resultsByLocation.getKey(), (x) -> new ResultsPerLocation());
+            ResultsPerLocation thisResults = getResults(resultsByLocation.getKey());
             thisResults.error.addAll(thatResults.error);
-            thisResults.warning.addAll(thatResults.warning);
+            if (this.storingWarnings) {
+                thisResults.warning.addAll(thatResults.warning);
+            }
             if (this.storingPassingChecks) {
                 thisResults.passed.addAll(thatResults.passed);
             }
@@ -362,16 +772,162 @@ public final class ValidationResult implements Serializable {
         return this;
     }
 
+    private void notifyListeners(ValidationLocation location, ResultsPerLocation checks) {
+        for (ValidationCheck check : checks.error) {
+            notifyListeners(location, check);
+        }
+        for (ValidationCheck check : checks.warning) {
+            notifyListeners(location, check);
+        }
+        for (ValidationCheck check : checks.passed) {
+            notifyListeners(location, check);
+        }
+    }
+
+    private static class CheckCounts implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long errors;
+        private long warnings;
+        private long passed;
+
+        void addErrors(long count) {
+            errors += count;
+        }
+
+        void addWarnings(long count) {
+            warnings += count;
+        }
+
+        void addPassed(long count) {
+            passed += count;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        long getWarnings() {
+            return warnings;
+        }
+
+        long getPassed() {
+            return passed;
+        }
+
+        @Override
+        public String toString() {
+            return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                    .append("errors", getErrors())
+                    .append("warnings", getWarnings())
+                    .append("passed", getPassed())
+                    .toString();
+        }
+    }
+
+    private static final class ConcurrentCheckCounts extends CheckCounts {
+        private static final long serialVersionUID = 1L;
+
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder warnings = new LongAdder();
+        private final LongAdder passed = new LongAdder();
+
+        @Override
+        void addErrors(long count) {
+            errors.add(count);
+        }
+
+        @Override
+        void addWarnings(long count) {
+            warnings.add(count);
+        }
+
+        @Override
+        void addPassed(long count) {
+            passed.add(count);
+        }
+
+        @Override
+        long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        long getWarnings() {
+            return warnings.sum();
+        }
+
+        @Override
+        long getPassed() {
+            return passed.sum();
+        }
+    }
+
+    /**
+     * Counts of a single writer of a concurrent result. The writer's own counts are kept separately, so that
+     * {@link #hasFailures()} of a writer is not affected by other threads, and are also added to the shared totals.
+     */
+    private static final class WriterCheckCounts extends CheckCounts {
+        private static final long serialVersionUID = 1L;
+
+        private final CheckCounts totals;
+
+        private WriterCheckCounts(CheckCounts totals) {
+            this.totals = totals;
+        }
+
+        @Override
+        void addErrors(long count) {
+            super.addErrors(count);
+            totals.addErrors(count);
+        }
+
+        @Override
+        void addWarnings(long count) {
+            super.addWarnings(count);
+            totals.addWarnings(count);
+        }
+
+        @Override
+        void addPassed(long count) {
+            super.addPassed(count);
+            totals.addPassed(count);
+        }
+    }
+
+    private static final class PassCount implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        int count;
+
+        @Override
+        public String toString() {
+            return String.valueOf(count);
+        }
+    }
+
     private static final class ResultsPerLocation implements Serializable {
         private static final long serialVersionUID = 1L;
 
-        final List<ValidationCheck> error = new ArrayList<>();
+        final List<ValidationCheck> error;
 
-        final List<ValidationCheck> warning = new ArrayList<>();
+        final List<ValidationCheck> warning;
 
-        // Average of 12-13 passed checks per location (min = 1, max = 18) as of 2020-07-08 on RIPE NCC trust anchor,
-        // we use a slightly higher initial capacity to avoid re-sizing.
-        final List<ValidationCheck> passed = new ArrayList<>(20);
+        final List<ValidationCheck> passed;
+
+        ResultsPerLocation(boolean concurrent) {
+            // Average of 12-13 passed checks per location (min = 1, max = 18) as of 2020-07-08 on RIPE NCC trust anchor,
+            // we use a slightly higher initial capacity to avoid re-sizing.
+            if (concurrent) {
+                error = Collections.synchronizedList(new ArrayList<>());
+                warning = Collections.synchronizedList(new ArrayList<>());
+                passed = Collections.synchronizedList(new ArrayList<>(20));
+            } else {
+                error = new ArrayList<>();
+                warning = new ArrayList<>();
+                passed = new ArrayList<>(20);
+            }
+        }
 
         @Override
         public String toString() {
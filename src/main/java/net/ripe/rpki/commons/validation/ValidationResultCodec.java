@@ -0,0 +1,366 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation;
+
+import org.apache.commons.lang.Validate;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact, versioned binary encoding of a {@link ValidationResult}.
+ *
+ * Locations and strings (check keys, parameters and metric names and values) are written to the stream the first
+ * time they are used and referred to by index afterwards. Counts and indexes are written as unsigned varints. The
+ * encoding is streamed, so neither side needs to hold the encoded result in memory.
+ */
+public final class ValidationResultCodec {
+
+    private static final int MAGIC = 0x56524553; // "VRES"
+
+    static final int VERSION = 2;
+
+    /**
+     * Version 1 has no per-location counts, they are derived from the stored checks.
+     */
+    private static final int VERSION_WITHOUT_LOCATION_COUNTS = 1;
+
+    private static final int FLAG_STORING_PASSING_CHECKS = 1;
+    private static final int FLAG_STORING_WARNINGS = 1 << 1;
+    private static final int FLAG_COUNTING_PASSING_CHECKS = 1 << 2;
+    private static final int FLAG_ORDERED_LOCATIONS = 1 << 3;
+
+    private static final ValidationStatus[] STATUSES = ValidationStatus.values();
+
+    private ValidationResultCodec() {
+    }
+
+    public static byte[] encode(ValidationResult validationResult) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            write(validationResult, bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ValidationResult decode(byte[] encoded) {
+        try {
+            return read(new ByteArrayInputStream(encoded));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("invalid encoded validation result", e);
+        }
+    }
+
+    /**
+     * Writes <code>validationResult</code> to <code>out</code>. The stream is flushed, but not closed.
+     */
+    public static void write(ValidationResult validationResult, OutputStream out) throws IOException {
+        Validate.notNull(validationResult, "validationResult is required");
+        Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(out, 1 << 16)));
+        writer.write(validationResult);
+        writer.out.flush();
+    }
+
+    /**
+     * Reads a single validation result from <code>in</code>. Nothing past the end of the result is consumed, so
+     * several results written to one stream can be read back in turn. The stream is not buffered here; wrap it in a
+     * {@link java.io.BufferedInputStream} when reading from a file or socket.
+     */
+    public static ValidationResult read(InputStream in) throws IOException {
+        return new Reader(new DataInputStream(in)).read();
+    }
+
+    private static final class Writer {
+        private final DataOutputStream out;
+        private final Map<ValidationLocation, Integer> locations = new HashMap<>();
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        private void write(ValidationResult result) throws IOException {
+            out.writeInt(MAGIC);
+            writeVarint(VERSION);
+            int flags = (result.isStoringPassingChecks() ? FLAG_STORING_PASSING_CHECKS : 0)
+                | (result.isStoringWarnings() ? FLAG_STORING_WARNINGS : 0)
+                | (result.isCountingPassingChecks() ? FLAG_COUNTING_PASSING_CHECKS : 0)
+                | (result.isOrderingLocations() ? FLAG_ORDERED_LOCATIONS : 0);
+            writeVarint(flags);
+            writeLocation(result.getCurrentLocation());
+            writeVarint(result.getFailureCount());
+            writeVarint(result.getWarningCount());
+            writeVarint(result.getPassedCheckCount());
+
+            Set<ValidationLocation> validatedLocations = result.getValidatedLocations();
+            writeVarint(validatedLocations.size());
+            for (ValidationLocation location : validatedLocations) {
+                List<ValidationCheck> checks = result.getAllValidationChecksForLocation(location);
+                writeLocation(location);
+                writeVarint(checks.size());
+                for (ValidationCheck check : checks) {
+                    out.writeByte(check.getStatus().ordinal());
+                    writeString(check.getKey());
+                    String[] params = check.getParams();
+                    if (params == null) {
+                        writeVarint(0);
+                    } else {
+                        writeVarint(params.length + 1);
+                        for (String param : params) {
+                            writeString(param);
+                        }
+                    }
+                }
+            }
+
+            Set<ValidationLocation> metricLocations = result.getMetricLocations();
+            writeVarint(metricLocations.size());
+            for (ValidationLocation location : metricLocations) {
+                List<ValidationMetric> metrics = result.getMetrics(location);
+                writeLocation(location);
+                writeVarint(metrics.size());
+                for (ValidationMetric metric : metrics) {
+                    writeString(metric.getName());
+                    writeString(metric.getValue());
+                    out.writeLong(metric.getMeasuredAt());
+                }
+            }
+
+            Map<String, Integer> passedCounts = result.isCountingPassingChecks() ? result.getPassedCounts() : Collections.emptyMap();
+            writeVarint(passedCounts.size());
+            for (Map.Entry<String, Integer> entry : passedCounts.entrySet()) {
+                writeString(entry.getKey());
+                writeVarint(entry.getValue());
+            }
+
+            Set<ValidationLocation> countedLocations = result.getCountedLocations();
+            writeVarint(countedLocations.size());
+            for (ValidationLocation location : countedLocations) {
+                writeLocation(location);
+                writeVarint(result.getFailureCount(location));
+                writeVarint(result.getWarningCount(location));
+            }
+        }
+
+        private void writeLocation(ValidationLocation location) throws IOException {
+            Integer index = locations.get(location);
+            if (index == null) {
+                locations.put(location, locations.size());
+                writeVarint(0);
+                writeUtf8(location.getName());
+            } else {
+                writeVarint(index + 1L);
+            }
+        }
+
+        /**
+         * 0 is null, 1 is a new string that follows, n + 2 refers to the n-th string written before.
+         */
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer index = strings.get(value);
+            if (index == null) {
+                strings.put(value, strings.size());
+                writeVarint(1);
+                writeUtf8(value);
+            } else {
+                writeVarint(index + 2L);
+            }
+        }
+
+        private void writeUtf8(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeVarint(long value) throws IOException {
+            while ((value & ~0x7fL) != 0) {
+                out.writeByte((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            out.writeByte((int) value);
+        }
+    }
+
+    private static final class Reader {
+        private final DataInputStream in;
+        private final List<ValidationLocation> locations = new ArrayList<>();
+        private final List<String> strings = new ArrayList<>();
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        private ValidationResult read() throws IOException {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not an encoded validation result");
+            }
+            int version = readInt();
+            if (version != VERSION && version != VERSION_WITHOUT_LOCATION_COUNTS) {
+                throw new IOException("unsupported validation result encoding version " + version);
+            }
+            int flags = readInt();
+            ValidationResult result = ValidationResult.withLocation(readLocation());
+            if ((flags & FLAG_ORDERED_LOCATIONS) == 0) {
+                result.withUnorderedLocations();
+            }
+            if ((flags & FLAG_COUNTING_PASSING_CHECKS) != 0) {
+                result.withPassingCheckCounts();
+            } else if ((flags & FLAG_STORING_PASSING_CHECKS) == 0) {
+                result.withoutStoringPassingChecks();
+            }
+            if ((flags & FLAG_STORING_WARNINGS) == 0) {
+                result.retainingOnlyErrors();
+            }
+            long errors = readVarint();
+            long warnings = readVarint();
+            long passed = readVarint();
+
+            for (int i = readInt(); i > 0; i--) {
+                ValidationLocation location = readLocation();
+                result.restoreLocation(location);
+                for (int j = readInt(); j > 0; j--) {
+                    int status = in.readUnsignedByte();
+                    if (status >= STATUSES.length) {
+                        throw new IOException("invalid validation status " + status);
+                    }
+                    String key = readString();
+                    int paramCount = readInt();
+                    String[] params = null;
+                    if (paramCount > 0) {
+                        params = new String[paramCount - 1];
+                        for (int k = 0; k < params.length; k++) {
+                            params[k] = readString();
+                        }
+                    }
+                    result.restoreCheck(location, new ValidationCheck(STATUSES[status], key, params));
+                }
+                if (version == VERSION_WITHOUT_LOCATION_COUNTS) {
+                    result.restoreLocationCounts(location, result.getFailures(location).size(), result.getWarnings(location).size());
+                }
+            }
+
+            for (int i = readInt(); i > 0; i--) {
+                ValidationLocation location = readLocation();
+                for (int j = readInt(); j > 0; j--) {
+                    result.restoreMetric(location, new ValidationMetric(readString(), readString(), in.readLong()));
+                }
+            }
+
+            Map<String, Integer> passedCounts = new HashMap<>();
+            for (int i = readInt(); i > 0; i--) {
+                passedCounts.put(readString(), readInt());
+            }
+            result.restoreCounts(errors, warnings, passed, passedCounts);
+
+            if (version != VERSION_WITHOUT_LOCATION_COUNTS) {
+                for (int i = readInt(); i > 0; i--) {
+                    result.restoreLocationCounts(readLocation(), readVarint(), readVarint());
+                }
+            }
+            return result;
+        }
+
+        private ValidationLocation readLocation() throws IOException {
+            int index = readInt();
+            if (index == 0) {
+                ValidationLocation location = new ValidationLocation(readUtf8());
+                locations.add(location);
+                return location;
+            }
+            if (index > locations.size()) {
+                throw new IOException("invalid location reference " + index);
+            }
+            return locations.get(index - 1);
+        }
+
+        private String readString() throws IOException {
+            int index = readInt();
+            if (index == 0) {
+                return null;
+            }
+            if (index == 1) {
+                String value = readUtf8();
+                strings.add(value);
+                return value;
+            }
+            if (index - 2 >= strings.size()) {
+                throw new IOException("invalid string reference " + index);
+            }
+            return strings.get(index - 2);
+        }
+
+        private String readUtf8() throws IOException {
+            byte[] bytes = new byte[readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private int readInt() throws IOException {
+            long value = readVarint();
+            if (value > Integer.MAX_VALUE) {
+                throw new IOException("value out of range " + value);
+            }
+            return (int) value;
+        }
+
+        private long readVarint() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = in.readUnsignedByte();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("malformed varint");
+        }
+    }
+}
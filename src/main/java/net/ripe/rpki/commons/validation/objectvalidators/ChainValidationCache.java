@@ -0,0 +1,281 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.objectvalidators;
+
+import net.ripe.ipresource.IpResourceSet;
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.util.Fingerprint;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
+import net.ripe.rpki.commons.util.UTC;
+import net.ripe.rpki.commons.validation.ValidationOptions;
+import org.apache.commons.lang.Validate;
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Certificate authority certificates whose chain up to a trust anchor was validated by
+ * {@link X509ResourceCertificateBottomUpValidator}. Validating a certificate issued under a cached certificate only
+ * validates the links below it.
+ * <p>
+ * Entries are keyed by certificate fingerprint, trust anchors and validation options, so validators with different
+ * trust anchors or options never share results. An entry remembers the CRL that was used for every link of its chain
+ * and is only used while the CRLs found for those links are still the same, and until the earliest expiry or CRL
+ * next update time in its chain.
+ * <p>
+ * Parsed CRLs are shared as well, so that a CRL signature verified for one certificate is not verified again for
+ * the other certificates issued by the same CA, see {@link X509Crl#verify(java.security.PublicKey)}.
+ * <p>
+ * This class is thread-safe.
+ */
+public class ChainValidationCache {
+
+    static final int MAXIMUM_CRL_COUNT = 1024;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Map<Fingerprint, X509Crl> crls = Collections.synchronizedMap(new LinkedHashMap<Fingerprint, X509Crl>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Fingerprint, X509Crl> eldest) {
+            return size() > MAXIMUM_CRL_COUNT;
+        }
+    });
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * @param currentCrl gives the fingerprint of the CRL currently found for a certificate in the chain, or null
+     *                   when no CRL is found
+     * @return the validated certificate with <code>fingerprint</code>, or null when it is not cached or its
+     * validation is no longer current.
+     */
+    Entry get(Fingerprint fingerprint, Scope scope, Function<X509ResourceCertificate, Fingerprint> currentCrl) {
+        Key key = new Key(fingerprint, scope);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isCurrent(currentCrl)) {
+            hitCount.incrementAndGet();
+            return entry;
+        }
+        if (entry != null) {
+            entries.remove(key, entry);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    void put(Scope scope, List<X509ResourceCertificate> chain, List<Fingerprint> crls, IpResourceSet resources, DateTime validUntil) {
+        Entry entry = new Entry(chain, crls, resources, validUntil);
+        entries.put(new Key(entry.getCertificate().getFingerprint(), scope), entry);
+    }
+
+    /**
+     * @return the parsed CRL with <code>fingerprint</code>, or null when it is not cached.
+     */
+    public X509Crl getCrl(Fingerprint fingerprint) {
+        return crls.get(fingerprint);
+    }
+
+    void putCrl(X509Crl crl) {
+        crls.put(crl.getFingerprint(), crl);
+    }
+
+    static Scope scope(Collection<X509ResourceCertificate> trustAnchors, ValidationOptions options) {
+        return new Scope(trustAnchors, options);
+    }
+
+    /**
+     * Removes a certificate for all trust anchors and options. Certificates issued under it may still be cached.
+     */
+    public void invalidate(Fingerprint fingerprint) {
+        entries.keySet().removeIf((key) -> key.fingerprint.equals(fingerprint));
+    }
+
+    public void clear() {
+        entries.clear();
+        crls.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public static final class Entry {
+        private final List<X509ResourceCertificate> chain;
+        private final List<Fingerprint> crls;
+        private final IpResourceSet resources;
+        private final DateTime validUntil;
+
+        private Entry(List<X509ResourceCertificate> chain, List<Fingerprint> crls, IpResourceSet resources, DateTime validUntil) {
+            Validate.notEmpty(chain, "chain is required");
+            Validate.isTrue(chain.size() == crls.size(), "a CRL fingerprint is required for every certificate");
+            Validate.notNull(resources, "resources is required");
+            Validate.notNull(validUntil, "validUntil is required");
+            this.chain = Collections.unmodifiableList(new ArrayList<>(chain));
+            this.crls = Collections.unmodifiableList(new ArrayList<>(crls));
+            this.resources = new IpResourceSet(resources);
+            this.validUntil = validUntil;
+        }
+
+        public X509ResourceCertificate getCertificate() {
+            return chain.get(chain.size() - 1);
+        }
+
+        /**
+         * @return the validated chain, starting at the trust anchor and ending with this certificate.
+         */
+        public List<X509ResourceCertificate> getChain() {
+            return chain;
+        }
+
+        /**
+         * @return the fingerprints of the CRLs used to validate the certificates of the chain, null for the trust anchor.
+         */
+        public List<Fingerprint> getCrls() {
+            return crls;
+        }
+
+        /**
+         * @return the number of certificates in the chain, including the trust anchor and this certificate.
+         */
+        public int getDepth() {
+            return chain.size();
+        }
+
+        /**
+         * @return the effective resources of the certificate, with inherited resources resolved.
+         */
+        public IpResourceSet getResources() {
+            return new IpResourceSet(resources);
+        }
+
+        public DateTime getValidUntil() {
+            return validUntil;
+        }
+
+        private boolean isCurrent(Function<X509ResourceCertificate, Fingerprint> currentCrl) {
+            if (!UTC.dateTime().isBefore(validUntil)) {
+                return false;
+            }
+            for (int i = 1; i < chain.size(); i++) {
+                if (!Objects.equals(crls.get(i), currentCrl.apply(chain.get(i)))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Trust anchors and validation options that cached validation results are only valid for. The options are
+     * copied, since {@link ValidationOptions} is mutable.
+     */
+    static final class Scope {
+        private final Set<Fingerprint> trustAnchors = new HashSet<>();
+        private final List<Object> options;
+
+        private Scope(Collection<X509ResourceCertificate> trustAnchors, ValidationOptions options) {
+            if (trustAnchors != null) {
+                for (X509ResourceCertificate trustAnchor : trustAnchors) {
+                    this.trustAnchors.add(trustAnchor.getFingerprint());
+                }
+            }
+            this.options = Arrays.asList(
+                options.isStrictManifestCRLValidityChecks(),
+                options.getCrlMaxStalePeriod(),
+                options.getManifestMaxStalePeriod(),
+                options.isAllowOverclaimParentChild());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * trustAnchors.hashCode() + options.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Scope)) {
+                return false;
+            }
+            Scope that = (Scope) obj;
+            return trustAnchors.equals(that.trustAnchors) && options.equals(that.options);
+        }
+    }
+
+    private static final class Key {
+        private final Fingerprint fingerprint;
+        private final Scope scope;
+
+        private Key(Fingerprint fingerprint, Scope scope) {
+            this.fingerprint = fingerprint;
+            this.scope = scope;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fingerprint.hashCode() + scope.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) obj;
+            return fingerprint.equals(that.fingerprint) && scope.equals(that.scope);
+        }
+    }
+}
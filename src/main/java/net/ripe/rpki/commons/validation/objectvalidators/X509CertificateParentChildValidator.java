@@ -31,6 +31,8 @@ package net.ripe.rpki.commons.validation.objectvalidators;
 
 import net.ripe.rpki.commons.crypto.crl.X509Crl;
 import net.ripe.rpki.commons.crypto.x509cert.AbstractX509CertificateWrapper;
+import net.ripe.rpki.commons.metrics.RpkiMetrics;
+import net.ripe.rpki.commons.util.RepositoryObjectType;
 import net.ripe.rpki.commons.util.UTC;
 import net.ripe.rpki.commons.validation.ValidationLocation;
 import net.ripe.rpki.commons.validation.ValidationOptions;
@@ -69,6 +71,7 @@ public abstract class X509CertificateParentChildValidator<T extends AbstractX509
     }
 
     public void validate(String location, T certificate) {
+        long startTime = RpkiMetrics.startTimer();
         this.child = certificate;
         result.setLocation(new ValidationLocation(location));
 
@@ -78,6 +81,14 @@ public abstract class X509CertificateParentChildValidator<T extends AbstractX509
         verifyIssuer();
         verifyKeyUsage();
         verifyAuthorityKeyIdentifier();
+        verifyResources();
+        RpkiMetrics.recordTime(RpkiMetrics.VALIDATION_TIME, RepositoryObjectType.Certificate, startTime);
+    }
+
+    /**
+     * Hook for validators of certificates with RFC 3779 resources, invoked after all other checks.
+     */
+    protected void verifyResources() {
     }
 
     public ValidationResult getValidationResult() {
@@ -92,11 +103,13 @@ public abstract class X509CertificateParentChildValidator<T extends AbstractX509
         result.rejectIfFalse(parent.isCa(), ISSUER_IS_CA);
 
         boolean errorOccurred = false;
+        long startTime = RpkiMetrics.startTimer();
         try {
             child.verify(parent.getPublicKey()); // signed with issuer's public key
         } catch (SignatureException | InvalidKeyException e) {
             errorOccurred = true;
         }
+        RpkiMetrics.recordTime(RpkiMetrics.SIGNATURE_VERIFICATION_TIME, RepositoryObjectType.Certificate, startTime);
 
         result.rejectIfTrue(errorOccurred, SIGNATURE_VALID);
     }
@@ -108,11 +121,13 @@ public abstract class X509CertificateParentChildValidator<T extends AbstractX509
         }
 
         boolean errorOccurred = false;
+        long startTime = RpkiMetrics.startTimer();
         try {
             crl.verify(parent.getPublicKey());
         } catch (SignatureException e) {
             errorOccurred = true;
         }
+        RpkiMetrics.recordTime(RpkiMetrics.SIGNATURE_VERIFICATION_TIME, RepositoryObjectType.Crl, startTime);
 
         result.rejectIfTrue(errorOccurred, CRL_SIGNATURE_VALID);
         result.rejectIfTrue(crl.isRevoked(child.getCertificate()), CERT_NOT_REVOKED);
@@ -122,8 +137,8 @@ public abstract class X509CertificateParentChildValidator<T extends AbstractX509
         final DateTime now = UTC.dateTime();
         final DateTime notValidBefore = child.getValidityPeriod().getNotValidBefore();
         final DateTime notValidAfter = child.getValidityPeriod().getNotValidAfter();
-        result.rejectIfTrue(now.isBefore(notValidBefore), NOT_VALID_BEFORE, notValidBefore.toString());
-        result.rejectIfTrue(now.isAfter(notValidAfter), NOT_VALID_AFTER, notValidAfter.toString());
+        result.rejectIfTrue(now.isBefore(notValidBefore), NOT_VALID_BEFORE, notValidBefore);
+        result.rejectIfTrue(now.isAfter(notValidAfter), NOT_VALID_AFTER, notValidAfter);
     }
 
     private void verifyIssuer() {
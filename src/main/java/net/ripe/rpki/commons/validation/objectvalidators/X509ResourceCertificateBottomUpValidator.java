@@ -32,12 +32,15 @@ package net.ripe.rpki.commons.validation.objectvalidators;
 import net.ripe.ipresource.IpResourceSet;
 import net.ripe.rpki.commons.crypto.CertificateRepositoryObjectFile;
 import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.util.Fingerprint;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateParser;
 import net.ripe.rpki.commons.validation.ValidationLocation;
 import net.ripe.rpki.commons.validation.ValidationOptions;
 import net.ripe.rpki.commons.validation.ValidationResult;
+import org.joda.time.DateTime;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.LinkedList;
@@ -56,6 +59,9 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
     private ValidationOptions options;
     private ValidationResult result;
     private ValidationLocation location;
+    private final ChainValidationCache chainValidationCache;
+    private ChainValidationCache.Scope chainValidationScope;
+    private ChainValidationCache.Entry validatedAncestor;
 
 
     public X509ResourceCertificateBottomUpValidator(ResourceCertificateLocator locator, X509ResourceCertificate... trustAnchors) {
@@ -67,6 +73,15 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
     }
 
     public X509ResourceCertificateBottomUpValidator(ValidationOptions options, ValidationResult result, ResourceCertificateLocator locator, Collection<X509ResourceCertificate> trustAnchors) {
+        this(options, result, locator, trustAnchors, null);
+    }
+
+    /**
+     * @param chainValidationCache certificates whose chain was validated before, shared by validators with the
+     *                             same options and trust anchors. Can be null.
+     */
+    public X509ResourceCertificateBottomUpValidator(ValidationOptions options, ValidationResult result, ResourceCertificateLocator locator, Collection<X509ResourceCertificate> trustAnchors, ChainValidationCache chainValidationCache) {
+        this.chainValidationCache = chainValidationCache;
         this.options = options;
         this.result = result;
         this.location = new ValidationLocation("unknown.cer");
@@ -82,6 +97,8 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
     @Override
     public void validate(String location, X509ResourceCertificate certificate) {
         this.location = new ValidationLocation(location);
+        this.validatedAncestor = null;
+        this.chainValidationScope = chainValidationCache == null ? null : ChainValidationCache.scope(trustAnchors, options);
         this.certificate = certificate;
 
         buildCertificationList();
@@ -90,12 +107,29 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
             return;
         }
 
-        checkTrustAnchor();
+        if (validatedAncestor == null) {
+            checkTrustAnchor();
+        }
 
         X509ResourceCertificate parent = certificates.get(0).getCertificate();
-        certificates.remove(0); // No need to validate the root (1st parent) certificate against itself
-
-        IpResourceSet resources = parent.getResources();
+        certificates.remove(0); // No need to validate the root (1st parent) or an already validated ancestor again
+
+        IpResourceSet resources;
+        DateTime validUntil;
+        List<X509ResourceCertificate> chain = new ArrayList<>();
+        List<Fingerprint> crls = new ArrayList<>();
+        if (validatedAncestor != null) {
+            resources = validatedAncestor.getResources();
+            validUntil = validatedAncestor.getValidUntil();
+            chain.addAll(validatedAncestor.getChain());
+            crls.addAll(validatedAncestor.getCrls());
+        } else {
+            resources = parent.getResources();
+            validUntil = parent.getValidityPeriod().getNotValidAfter();
+            chain.add(parent);
+            crls.add(null);
+            cacheValidatedCertificate(chain, crls, resources, validUntil);
+        }
 
         for (CertificateWithLocation certificateWithLocation : certificates) {
             String childLocation = certificateWithLocation.getLocation().getName();
@@ -111,14 +145,37 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
             validator.validate(childLocation, child);
 
             resources = child.deriveResources(resources);
+            validUntil = earliest(validUntil, child.getValidityPeriod().getNotValidAfter());
+            if (crl != null) {
+                validUntil = earliest(validUntil, crl.getNextUpdateTime());
+            }
+            chain.add(child);
+            crls.add(crl == null ? null : crl.getFingerprint());
+            cacheValidatedCertificate(chain, crls, resources, validUntil);
             parent = child;
         }
     }
 
+    private void cacheValidatedCertificate(List<X509ResourceCertificate> chain, List<Fingerprint> crls, IpResourceSet resources, DateTime validUntil) {
+        X509ResourceCertificate certificate = chain.get(chain.size() - 1);
+        if (chainValidationCache != null && certificate.isCa() && !result.hasFailures()) {
+            chainValidationCache.put(chainValidationScope, chain, crls, resources, validUntil);
+        }
+    }
+
+    private Fingerprint currentCrlFingerprint(X509ResourceCertificate certificate) {
+        CertificateRepositoryObjectFile<X509Crl> crlFile = locator.findCrl(certificate);
+        return crlFile == null ? null : Fingerprint.of(crlFile.getContent());
+    }
+
+    private static DateTime earliest(DateTime a, DateTime b) {
+        return b == null || a.isBefore(b) ? a : b;
+    }
+
     private void buildCertificationList() {
         certificates.add(0, new CertificateWithLocation(this.certificate, this.location));
         result.setLocation(this.location);
-        if (!result.rejectIfFalse(certificates.size() <= MAX_CHAIN_LENGTH, CERT_CHAIN_LENGTH, Integer.valueOf(MAX_CHAIN_LENGTH).toString())) {
+        if (!result.rejectIfFalse(certificates.size() <= MAX_CHAIN_LENGTH, CERT_CHAIN_LENGTH, MAX_CHAIN_LENGTH)) {
             return;
         }
 
@@ -133,6 +190,17 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
             ValidationLocation parentLocation = new ValidationLocation(parent.getName());
             result.setLocation(parentLocation);
 
+            if (chainValidationCache != null) {
+                validatedAncestor = chainValidationCache.get(Fingerprint.of(parent.getContent()), chainValidationScope, this::currentCrlFingerprint);
+                if (validatedAncestor != null) {
+                    certificates.add(0, new CertificateWithLocation(validatedAncestor.getCertificate(), parentLocation));
+                    // the ancestor's own chain counts towards the length as well
+                    int chainLength = certificates.size() - 1 + validatedAncestor.getDepth();
+                    result.rejectIfFalse(chainLength <= MAX_CHAIN_LENGTH, CERT_CHAIN_LENGTH, MAX_CHAIN_LENGTH);
+                    return;
+                }
+            }
+
             X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
             parser.parse(result, parent.getContent());
             if (result.hasFailures()) {
@@ -141,7 +209,7 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
 
             cert = parser.getCertificate();
             certificates.add(0, new CertificateWithLocation(cert, parentLocation));
-            if (!result.rejectIfFalse(certificates.size() <= MAX_CHAIN_LENGTH, CERT_CHAIN_LENGTH, Integer.valueOf(MAX_CHAIN_LENGTH).toString())) {
+            if (!result.rejectIfFalse(certificates.size() <= MAX_CHAIN_LENGTH, CERT_CHAIN_LENGTH, MAX_CHAIN_LENGTH)) {
                 return;
             }
         }
@@ -153,7 +221,21 @@ public class X509ResourceCertificateBottomUpValidator implements X509ResourceCer
         if (crlFile == null) {
             return null;
         }
-        return X509Crl.parseDerEncoded(crlFile.getContent(), validationResult);
+        if (chainValidationCache == null) {
+            return X509Crl.parseDerEncoded(crlFile.getContent(), validationResult);
+        }
+
+        // Reuse the parsed CRL, so its signature is only verified once for all children of the same parent
+        X509Crl crl = chainValidationCache.getCrl(Fingerprint.of(crlFile.getContent()));
+        if (crl != null) {
+            validationResult.pass(CRL_PARSED);
+            return crl;
+        }
+        crl = X509Crl.parseDerEncoded(crlFile.getContent(), validationResult);
+        if (crl != null) {
+            chainValidationCache.putCrl(crl);
+        }
+        return crl;
     }
 
     private void checkTrustAnchor() {
@@ -49,12 +49,7 @@ public class X509ResourceCertificateParentChildLooseValidator extends X509Certif
     }
 
     @Override
-    public void validate(String location, X509ResourceCertificate certificate) {
-        super.validate(location, certificate);
-        verifyResources();
-    }
-
-    private void verifyResources() {
+    protected void verifyResources() {
         final ValidationResult result = getValidationResult();
         final X509ResourceCertificate child = getChild();
         final IpResourceSet resources = context.getResources();
@@ -68,7 +63,7 @@ public class X509ResourceCertificateParentChildLooseValidator extends X509Certif
                 overclaiming.removeAll(resources);
 
                 context.addOverclaiming(overclaiming);
-                result.warnIfFalse(overclaiming.isEmpty(), RESOURCE_RANGE, overclaiming.toString());
+                result.warnIfFalse(overclaiming.isEmpty(), RESOURCE_RANGE, overclaiming);
             }
         }
     }
@@ -48,12 +48,7 @@ public class X509ResourceCertificateParentChildValidator extends X509Certificate
     }
 
     @Override
-    public void validate(String location, X509ResourceCertificate certificate) {
-        super.validate(location, certificate);
-        verifyResources();
-    }
-
-    private void verifyResources() {
+    protected void verifyResources() {
         final ValidationResult result = getValidationResult();
         final X509ResourceCertificate child = getChild();
         final IpResourceSet childResourceSet = child.deriveResources(resources);
@@ -64,7 +59,7 @@ public class X509ResourceCertificateParentChildValidator extends X509Certificate
             if (!resources.contains(childResourceSet)) {
                 final IpResourceSet overclaiming = new IpResourceSet(childResourceSet);
                 overclaiming.removeAll(resources);
-                result.rejectIfFalse(overclaiming.isEmpty(), RESOURCE_RANGE, overclaiming.toString());
+                result.rejectIfFalse(overclaiming.isEmpty(), RESOURCE_RANGE, overclaiming);
             }
         }
     }
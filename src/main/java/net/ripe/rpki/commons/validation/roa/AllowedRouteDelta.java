@@ -0,0 +1,86 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.rpki.commons.util.EqualsSupport;
+import org.apache.commons.lang.Validate;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Allowed routes announced and withdrawn between two serials.
+ */
+public class AllowedRouteDelta extends EqualsSupport implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final long fromSerial;
+    private final long toSerial;
+    private final List<AllowedRoute> announced;
+    private final List<AllowedRoute> withdrawn;
+
+    public AllowedRouteDelta(long fromSerial, long toSerial, List<AllowedRoute> announced, List<AllowedRoute> withdrawn) {
+        Validate.notNull(announced, "announced is required");
+        Validate.notNull(withdrawn, "withdrawn is required");
+        this.fromSerial = fromSerial;
+        this.toSerial = toSerial;
+        this.announced = Collections.unmodifiableList(new ArrayList<AllowedRoute>(announced));
+        this.withdrawn = Collections.unmodifiableList(new ArrayList<AllowedRoute>(withdrawn));
+    }
+
+    public static AllowedRouteDelta between(long fromSerial, CanonicalAllowedRoutes from, long toSerial, CanonicalAllowedRoutes to) {
+        List<AllowedRoute> announced = new ArrayList<AllowedRoute>();
+        List<AllowedRoute> withdrawn = new ArrayList<AllowedRoute>();
+        from.diff(to, announced, withdrawn);
+        return new AllowedRouteDelta(fromSerial, toSerial, announced, withdrawn);
+    }
+
+    public long getFromSerial() {
+        return fromSerial;
+    }
+
+    public long getToSerial() {
+        return toSerial;
+    }
+
+    public List<AllowedRoute> getAnnounced() {
+        return announced;
+    }
+
+    public List<AllowedRoute> getWithdrawn() {
+        return withdrawn;
+    }
+
+    public boolean isEmpty() {
+        return announced.isEmpty() && withdrawn.isEmpty();
+    }
+}
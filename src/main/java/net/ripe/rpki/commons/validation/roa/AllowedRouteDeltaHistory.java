@@ -0,0 +1,135 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps the current set of allowed routes and a bounded history of the deltas leading up to it, so that caches
+ * serving routers (e.g. over RTR) can send a router only the changes since the serial it last saw.
+ * <p>
+ * This class is thread-safe.
+ */
+public class AllowedRouteDeltaHistory {
+
+    private final int maximumDeltas;
+
+    private final Deque<AllowedRouteDelta> deltas = new ArrayDeque<AllowedRouteDelta>();
+
+    private long currentSerial;
+    private CanonicalAllowedRoutes current;
+
+    public AllowedRouteDeltaHistory(int maximumDeltas, long serial, Iterable<? extends AllowedRoute> allowedRoutes) {
+        Validate.isTrue(maximumDeltas > 0, "maximumDeltas must be positive");
+        this.maximumDeltas = maximumDeltas;
+        this.currentSerial = serial;
+        this.current = CanonicalAllowedRoutes.of(allowedRoutes);
+    }
+
+    public synchronized long getCurrentSerial() {
+        return currentSerial;
+    }
+
+    public synchronized CanonicalAllowedRoutes getCurrent() {
+        return current;
+    }
+
+    public AllowedRouteDelta update(AllowedRouteSnapshot snapshot) {
+        return update(snapshot.getSerial(), snapshot.getAllowedRoutes());
+    }
+
+    /**
+     * Replaces the current set of allowed routes and records the delta from the previous set. The oldest delta
+     * is dropped once more than the maximum number of deltas are kept.
+     */
+    public AllowedRouteDelta update(long serial, Iterable<? extends AllowedRoute> allowedRoutes) {
+        CanonicalAllowedRoutes next = CanonicalAllowedRoutes.of(allowedRoutes);
+        synchronized (this) {
+            Validate.isTrue(serial > currentSerial, "serial must increase");
+            AllowedRouteDelta delta = AllowedRouteDelta.between(currentSerial, current, serial, next);
+            deltas.addLast(delta);
+            if (deltas.size() > maximumDeltas) {
+                deltas.removeFirst();
+            }
+            currentSerial = serial;
+            current = next;
+            return delta;
+        }
+    }
+
+    /**
+     * Combines the deltas since the given serial into a single delta to the current serial.
+     *
+     * @return the delta, or <code>null</code> when the serial is no longer (or was never) in the history, in
+     * which case the client needs the complete set of allowed routes.
+     */
+    public synchronized AllowedRouteDelta getDeltaSince(long serial) {
+        if (serial == currentSerial) {
+            return new AllowedRouteDelta(serial, serial, Collections.<AllowedRoute>emptyList(), Collections.<AllowedRoute>emptyList());
+        }
+
+        Iterator<AllowedRouteDelta> iterator = deltas.iterator();
+        AllowedRouteDelta delta = null;
+        while (iterator.hasNext()) {
+            delta = iterator.next();
+            if (delta.getFromSerial() == serial) {
+                break;
+            }
+        }
+        if (delta == null || delta.getFromSerial() != serial) {
+            return null;
+        }
+
+        Set<AllowedRoute> announced = new LinkedHashSet<AllowedRoute>(delta.getAnnounced());
+        Set<AllowedRoute> withdrawn = new LinkedHashSet<AllowedRoute>(delta.getWithdrawn());
+        while (iterator.hasNext()) {
+            delta = iterator.next();
+            for (AllowedRoute allowedRoute : delta.getWithdrawn()) {
+                if (!announced.remove(allowedRoute)) {
+                    withdrawn.add(allowedRoute);
+                }
+            }
+            for (AllowedRoute allowedRoute : delta.getAnnounced()) {
+                if (!withdrawn.remove(allowedRoute)) {
+                    announced.add(allowedRoute);
+                }
+            }
+        }
+        return new AllowedRouteDelta(serial, currentSerial, new ArrayList<AllowedRoute>(announced), new ArrayList<AllowedRoute>(withdrawn));
+    }
+}
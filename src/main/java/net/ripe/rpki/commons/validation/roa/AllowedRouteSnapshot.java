@@ -0,0 +1,93 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable set of allowed routes together with its validation index. The serial identifies the set of allowed
+ * routes that answered a query.
+ */
+public final class AllowedRouteSnapshot implements RouteOriginValidationIndex {
+
+    private final long serial;
+    private final List<AllowedRoute> allowedRoutes;
+    private final AllowedRouteTrie index;
+
+    AllowedRouteSnapshot(long serial, List<AllowedRoute> allowedRoutes, AllowedRouteTrie index) {
+        this.serial = serial;
+        this.allowedRoutes = allowedRoutes;
+        this.index = index;
+    }
+
+    public static AllowedRouteSnapshot of(long serial, Iterable<? extends AllowedRoute> allowedRoutes) {
+        Validate.notNull(allowedRoutes, "allowedRoutes is required");
+        List<AllowedRoute> copy = new ArrayList<AllowedRoute>();
+        for (AllowedRoute allowedRoute : allowedRoutes) {
+            copy.add(allowedRoute);
+        }
+        return new AllowedRouteSnapshot(serial, Collections.unmodifiableList(copy), AllowedRouteTrie.build(copy));
+    }
+
+    AllowedRouteSnapshot withSerial(long serial) {
+        return new AllowedRouteSnapshot(serial, allowedRoutes, index);
+    }
+
+    public long getSerial() {
+        return serial;
+    }
+
+    public List<AllowedRoute> getAllowedRoutes() {
+        return allowedRoutes;
+    }
+
+    public int size() {
+        return allowedRoutes.size();
+    }
+
+    @Override
+    public RouteValidityState validate(AnnouncedRoute announcedRoute) {
+        return index.validate(announcedRoute);
+    }
+
+    @Override
+    public RouteValidityState validateIpv4(long address, int prefixLength, long asn) {
+        return index.validateIpv4(address, prefixLength, asn);
+    }
+
+    @Override
+    public RouteValidityState validateIpv6(long addressHigh, long addressLow, int prefixLength, long asn) {
+        return index.validateIpv6(addressHigh, addressLow, prefixLength, asn);
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.rpki.commons.crypto.cms.roa.Roa;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes {@link AllowedRouteSnapshot}s to concurrent readers. The snapshot index is built by the publishing
+ * thread before it is made visible with an atomic reference swap, so readers never block and always see a
+ * complete snapshot. Every published snapshot gets a serial one higher than the previous one, starting with an
+ * empty snapshot with serial 0.
+ */
+public class AllowedRouteSnapshotPublisher {
+
+    private final AtomicReference<AllowedRouteSnapshot> current =
+        new AtomicReference<AllowedRouteSnapshot>(AllowedRouteSnapshot.of(0, Collections.<AllowedRoute>emptyList()));
+
+    public AllowedRouteSnapshot getCurrentSnapshot() {
+        return current.get();
+    }
+
+    public AllowedRouteSnapshot publishRoas(List<? extends Roa> roas) {
+        return publish(AllowedRoute.fromRoas(roas));
+    }
+
+    public AllowedRouteSnapshot publish(Iterable<? extends AllowedRoute> allowedRoutes) {
+        AllowedRouteSnapshot built = AllowedRouteSnapshot.of(0, allowedRoutes);
+        while (true) {
+            AllowedRouteSnapshot previous = current.get();
+            AllowedRouteSnapshot next = built.withSerial(previous.getSerial() + 1);
+            if (current.compareAndSet(previous, next)) {
+                return next;
+            }
+        }
+    }
+}
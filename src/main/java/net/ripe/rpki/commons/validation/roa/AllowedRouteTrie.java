@@ -0,0 +1,88 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceType;
+import org.apache.commons.lang.Validate;
+
+/**
+ * Route origin validation index with a binary trie per address family. Unlike the
+ * {@link net.ripe.ipresource.etree.NestedIntervalMap} used by {@link RouteOriginValidationPolicy} it keeps the
+ * allowed routes in primitive arrays and does not allocate when validating a route.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class AllowedRouteTrie implements RouteOriginValidationIndex {
+
+    private final PrefixTrie ipv4;
+    private final PrefixTrie ipv6;
+
+    private AllowedRouteTrie(PrefixTrie ipv4, PrefixTrie ipv6) {
+        this.ipv4 = ipv4;
+        this.ipv6 = ipv6;
+    }
+
+    public static AllowedRouteTrie build(Iterable<? extends AllowedRoute> allowedRoutes) {
+        PrefixTrie.Builder ipv4 = new PrefixTrie.Builder();
+        PrefixTrie.Builder ipv6 = new PrefixTrie.Builder();
+        for (AllowedRoute allowedRoute : allowedRoutes) {
+            IpRange prefix = allowedRoute.getPrefix();
+            Validate.isTrue(prefix.isLegalPrefix(), "allowed route prefix must be legal");
+            PrefixTrie.Builder builder = prefix.getType() == IpResourceType.IPv4 ? ipv4 : ipv6;
+            builder.add(PrefixTrie.high(prefix), PrefixTrie.low(prefix), prefix.getPrefixLength(),
+                (int) allowedRoute.getAsn().longValue(), allowedRoute.getMaximumLength());
+        }
+        return new AllowedRouteTrie(ipv4.build(), ipv6.build());
+    }
+
+    public int size() {
+        return ipv4.size() + ipv6.size();
+    }
+
+    @Override
+    public RouteValidityState validate(AnnouncedRoute announcedRoute) {
+        IpRange prefix = announcedRoute.getPrefix();
+        PrefixTrie trie = prefix.getType() == IpResourceType.IPv4 ? ipv4 : ipv6;
+        return trie.validate(PrefixTrie.high(prefix), PrefixTrie.low(prefix), prefix.getPrefixLength(), (int) announcedRoute.getOriginAsn().longValue());
+    }
+
+    @Override
+    public RouteValidityState validateIpv4(long address, int prefixLength, long asn) {
+        Validate.isTrue(prefixLength >= 0 && prefixLength <= 32, "prefixLength out of bounds");
+        return ipv4.validate(address << 32, 0L, prefixLength, (int) asn);
+    }
+
+    @Override
+    public RouteValidityState validateIpv6(long addressHigh, long addressLow, int prefixLength, long asn) {
+        Validate.isTrue(prefixLength >= 0 && prefixLength <= 128, "prefixLength out of bounds");
+        return ipv6.validate(addressHigh, addressLow, prefixLength, (int) asn);
+    }
+}
@@ -0,0 +1,170 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceType;
+import org.apache.commons.lang.Validate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Set of allowed routes in a canonical order, encoded in primitive arrays. Two sets can be compared in a single
+ * linear merge, so computing the difference between consecutive sets costs O(n) instead of hashing every
+ * {@link AllowedRoute}. Duplicate allowed routes are removed.
+ * <p>
+ * The canonical order is: IPv4 before IPv6, then address, prefix length, maximum length and ASN, all unsigned.
+ */
+public final class CanonicalAllowedRoutes {
+
+    private static final int IPV6_FLAG = 1 << 16;
+
+    private final long[] highs;
+    private final long[] lows;
+    private final int[] lengths; // IPv6 flag, prefix length and maximum length
+    private final int[] asns;
+    private final AllowedRoute[] allowedRoutes;
+
+    private CanonicalAllowedRoutes(long[] highs, long[] lows, int[] lengths, int[] asns, AllowedRoute[] allowedRoutes) {
+        this.highs = highs;
+        this.lows = lows;
+        this.lengths = lengths;
+        this.asns = asns;
+        this.allowedRoutes = allowedRoutes;
+    }
+
+    public static CanonicalAllowedRoutes of(Iterable<? extends AllowedRoute> allowedRoutes) {
+        List<AllowedRoute> routes = new ArrayList<AllowedRoute>();
+        for (AllowedRoute allowedRoute : allowedRoutes) {
+            Validate.isTrue(allowedRoute.getPrefix().isLegalPrefix(), "allowed route prefix must be legal");
+            routes.add(allowedRoute);
+        }
+
+        final int count = routes.size();
+        final long[] highs = new long[count];
+        final long[] lows = new long[count];
+        final int[] lengths = new int[count];
+        final int[] asns = new int[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            AllowedRoute allowedRoute = routes.get(i);
+            IpRange prefix = allowedRoute.getPrefix();
+            highs[i] = PrefixTrie.high(prefix);
+            lows[i] = PrefixTrie.low(prefix);
+            lengths[i] = (prefix.getType() == IpResourceType.IPv6 ? IPV6_FLAG : 0) | prefix.getPrefixLength() << 8 | allowedRoute.getMaximumLength();
+            asns[i] = (int) allowedRoute.getAsn().longValue();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                return CanonicalAllowedRoutes.compare(highs[i1], lows[i1], lengths[i1], asns[i1], highs[i2], lows[i2], lengths[i2], asns[i2]);
+            }
+        });
+
+        long[] sortedHighs = new long[count];
+        long[] sortedLows = new long[count];
+        int[] sortedLengths = new int[count];
+        int[] sortedAsns = new int[count];
+        AllowedRoute[] sortedRoutes = new AllowedRoute[count];
+        int size = 0;
+        for (int i : order) {
+            if (size > 0 && compare(sortedHighs[size - 1], sortedLows[size - 1], sortedLengths[size - 1], sortedAsns[size - 1], highs[i], lows[i], lengths[i], asns[i]) == 0) {
+                continue;
+            }
+            sortedHighs[size] = highs[i];
+            sortedLows[size] = lows[i];
+            sortedLengths[size] = lengths[i];
+            sortedAsns[size] = asns[i];
+            sortedRoutes[size] = routes.get(i);
+            size++;
+        }
+        return new CanonicalAllowedRoutes(Arrays.copyOf(sortedHighs, size), Arrays.copyOf(sortedLows, size),
+            Arrays.copyOf(sortedLengths, size), Arrays.copyOf(sortedAsns, size), Arrays.copyOf(sortedRoutes, size));
+    }
+
+    public int size() {
+        return allowedRoutes.length;
+    }
+
+    public List<AllowedRoute> getAllowedRoutes() {
+        return Collections.unmodifiableList(Arrays.asList(allowedRoutes));
+    }
+
+    /**
+     * Merges this set with a newer set in linear time.
+     *
+     * @param newer     the allowed routes to compare with
+     * @param announced receives the routes only present in <code>newer</code>, in canonical order
+     * @param withdrawn receives the routes only present in this set, in canonical order
+     */
+    public void diff(CanonicalAllowedRoutes newer, List<? super AllowedRoute> announced, List<? super AllowedRoute> withdrawn) {
+        int i = 0;
+        int j = 0;
+        while (i < size() && j < newer.size()) {
+            int rc = compare(highs[i], lows[i], lengths[i], asns[i], newer.highs[j], newer.lows[j], newer.lengths[j], newer.asns[j]);
+            if (rc < 0) {
+                withdrawn.add(allowedRoutes[i++]);
+            } else if (rc > 0) {
+                announced.add(newer.allowedRoutes[j++]);
+            } else {
+                i++;
+                j++;
+            }
+        }
+        while (i < size()) {
+            withdrawn.add(allowedRoutes[i++]);
+        }
+        while (j < newer.size()) {
+            announced.add(newer.allowedRoutes[j++]);
+        }
+    }
+
+    private static int compare(long high1, long low1, int length1, int asn1, long high2, long low2, int length2, int asn2) {
+        int rc = Integer.compare(length1 & IPV6_FLAG, length2 & IPV6_FLAG);
+        if (rc == 0) {
+            rc = Long.compareUnsigned(high1, high2);
+        }
+        if (rc == 0) {
+            rc = Long.compareUnsigned(low1, low2);
+        }
+        if (rc == 0) {
+            rc = Integer.compare(length1, length2);
+        }
+        if (rc == 0) {
+            rc = Integer.compareUnsigned(asn1, asn2);
+        }
+        return rc;
+    }
+}
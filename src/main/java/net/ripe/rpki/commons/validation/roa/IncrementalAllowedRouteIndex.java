@@ -0,0 +1,194 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResource;
+import net.ripe.ipresource.Ipv4Address;
+import net.ripe.ipresource.Ipv6Address;
+import net.ripe.ipresource.etree.IpResourceIntervalStrategy;
+import net.ripe.ipresource.etree.NestedIntervalMap;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Route origin validation index that can be updated with added and removed allowed routes, instead of being
+ * rebuilt from scratch with {@link RouteOriginValidationPolicy#allowedRoutesToNestedIntervalMap(Iterable)}.
+ * <p>
+ * Announced routes can be tracked, in which case their validity state is remembered and
+ * {@link #update(Collection, Collection)} reports the tracked routes whose state changed. Only tracked routes
+ * covered by an added or removed allowed route are re-validated.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class IncrementalAllowedRouteIndex implements RouteOriginValidationIndex {
+
+    private static final BigInteger LOW_64_BITS = BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE);
+    private static final BigInteger LOW_128_BITS = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+    private final RouteOriginValidationPolicy policy = new RouteOriginValidationPolicy();
+
+    private final NestedIntervalMap<IpResource, List<AllowedRoute>> allowedRoutes = new NestedIntervalMap<IpResource, List<AllowedRoute>>(IpResourceIntervalStrategy.getInstance());
+
+    private final NestedIntervalMap<IpResource, List<AnnouncedRoute>> trackedRoutesByPrefix = new NestedIntervalMap<IpResource, List<AnnouncedRoute>>(IpResourceIntervalStrategy.getInstance());
+
+    private final Map<AnnouncedRoute, RouteValidityState> trackedRouteStates = new HashMap<AnnouncedRoute, RouteValidityState>();
+
+    private int size;
+
+    public IncrementalAllowedRouteIndex() {
+    }
+
+    public IncrementalAllowedRouteIndex(Iterable<? extends AllowedRoute> allowedRoutes) {
+        for (AllowedRoute allowedRoute : allowedRoutes) {
+            add(allowedRoute);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Validates the announced route and tracks its validity state from now on.
+     */
+    public RouteValidityState track(AnnouncedRoute announcedRoute) {
+        RouteValidityState state = validate(announcedRoute);
+        if (trackedRouteStates.put(announcedRoute, state) == null) {
+            List<AnnouncedRoute> routes = trackedRoutesByPrefix.findExact(announcedRoute.getPrefix());
+            if (routes == null) {
+                routes = new LinkedList<AnnouncedRoute>();
+                trackedRoutesByPrefix.put(announcedRoute.getPrefix(), routes);
+            }
+            routes.add(announcedRoute);
+        }
+        return state;
+    }
+
+    public void untrack(AnnouncedRoute announcedRoute) {
+        if (trackedRouteStates.remove(announcedRoute) != null) {
+            List<AnnouncedRoute> routes = trackedRoutesByPrefix.findExact(announcedRoute.getPrefix());
+            routes.remove(announcedRoute);
+            if (routes.isEmpty()) {
+                trackedRoutesByPrefix.remove(announcedRoute.getPrefix());
+            }
+        }
+    }
+
+    /**
+     * @return the last known validity state of a tracked route, or <code>null</code> if the route is not tracked.
+     */
+    public RouteValidityState getTrackedState(AnnouncedRoute announcedRoute) {
+        return trackedRouteStates.get(announcedRoute);
+    }
+
+    /**
+     * Applies a delta to the allowed routes. Removals are applied before additions, removing a route that is not
+     * present has no effect.
+     *
+     * @return the tracked routes whose validity state changed because of the delta.
+     */
+    public List<RouteValidityChange> update(Collection<? extends AllowedRoute> added, Collection<? extends AllowedRoute> removed) {
+        Set<IpRange> changedPrefixes = new LinkedHashSet<IpRange>();
+        for (AllowedRoute allowedRoute : removed) {
+            if (remove(allowedRoute)) {
+                changedPrefixes.add(allowedRoute.getPrefix());
+            }
+        }
+        for (AllowedRoute allowedRoute : added) {
+            add(allowedRoute);
+            changedPrefixes.add(allowedRoute.getPrefix());
+        }
+
+        Set<AnnouncedRoute> affected = new LinkedHashSet<AnnouncedRoute>();
+        for (IpRange prefix : changedPrefixes) {
+            for (List<AnnouncedRoute> routes : trackedRoutesByPrefix.findExactAndAllMoreSpecific(prefix)) {
+                affected.addAll(routes);
+            }
+        }
+
+        List<RouteValidityChange> changes = new ArrayList<RouteValidityChange>();
+        for (AnnouncedRoute announcedRoute : affected) {
+            RouteValidityState currentState = validate(announcedRoute);
+            RouteValidityState previousState = trackedRouteStates.put(announcedRoute, currentState);
+            if (previousState != currentState) {
+                changes.add(new RouteValidityChange(announcedRoute, previousState, currentState));
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public RouteValidityState validate(AnnouncedRoute announcedRoute) {
+        return policy.validateAnnouncedRoute(allowedRoutes, announcedRoute);
+    }
+
+    @Override
+    public RouteValidityState validateIpv4(long address, int prefixLength, long asn) {
+        return validate(new AnnouncedRoute(new Asn(asn), IpRange.prefix(new Ipv4Address(address), prefixLength)));
+    }
+
+    @Override
+    public RouteValidityState validateIpv6(long addressHigh, long addressLow, int prefixLength, long asn) {
+        BigInteger address = BigInteger.valueOf(addressHigh).shiftLeft(64).or(BigInteger.valueOf(addressLow).and(LOW_64_BITS));
+        return validate(new AnnouncedRoute(new Asn(asn), IpRange.prefix(new Ipv6Address(address.and(LOW_128_BITS)), prefixLength)));
+    }
+
+    private void add(AllowedRoute allowedRoute) {
+        List<AllowedRoute> routes = allowedRoutes.findExact(allowedRoute.getPrefix());
+        if (routes == null) {
+            routes = new LinkedList<AllowedRoute>();
+            allowedRoutes.put(allowedRoute.getPrefix(), routes);
+        }
+        routes.add(allowedRoute);
+        size++;
+    }
+
+    private boolean remove(AllowedRoute allowedRoute) {
+        List<AllowedRoute> routes = allowedRoutes.findExact(allowedRoute.getPrefix());
+        if (routes == null || !routes.remove(allowedRoute)) {
+            return false;
+        }
+        if (routes.isEmpty()) {
+            allowedRoutes.remove(allowedRoute.getPrefix());
+        }
+        size--;
+        return true;
+    }
+}
@@ -0,0 +1,335 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceType;
+import org.apache.commons.lang.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Route origin validation index that is queried directly from a memory mapped file, so a validator can answer
+ * queries right after start up without parsing the repository again.
+ * <p>
+ * File layout (big endian):
+ * <pre>
+ * header   magic "RVRP" (4), version (4), serial (8), IPv4 record count (4), IPv6 record count (4), CRC32 of all records (8)
+ * IPv4     address (4), prefix length (1), maximum length (1), reserved (2), ASN (4)
+ * IPv6     address high (8), address low (8), prefix length (1), maximum length (1), reserved (2), ASN (4)
+ * </pre>
+ * Records are sorted on address and prefix length. Records with the same prefix keep the order of the allowed
+ * routes they were written from, so results are identical to {@link RouteOriginValidationPolicy}.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+public final class MappedAllowedRouteTable implements RouteOriginValidationIndex {
+
+    private static final int MAGIC = 0x52565250; // "RVRP"
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 32;
+    private static final int IPV4_RECORD_SIZE = 12;
+    private static final int IPV6_RECORD_SIZE = 24;
+
+    private final ByteBuffer buffer;
+    private final long serial;
+    private final int ipv4Count;
+    private final int ipv6Count;
+    private final int ipv6Offset;
+
+    private MappedAllowedRouteTable(ByteBuffer buffer, long serial, int ipv4Count, int ipv6Count) {
+        this.buffer = buffer;
+        this.serial = serial;
+        this.ipv4Count = ipv4Count;
+        this.ipv6Count = ipv6Count;
+        this.ipv6Offset = HEADER_SIZE + ipv4Count * IPV4_RECORD_SIZE;
+    }
+
+    /**
+     * Writes the allowed routes to a new file next to <code>file</code> and renames it into place, so that
+     * readers never see a partially written table.
+     */
+    public static void write(File file, long serial, List<? extends AllowedRoute> allowedRoutes) throws IOException {
+        List<AllowedRoute> ipv4 = new ArrayList<AllowedRoute>();
+        List<AllowedRoute> ipv6 = new ArrayList<AllowedRoute>();
+        for (AllowedRoute allowedRoute : allowedRoutes) {
+            IpRange prefix = allowedRoute.getPrefix();
+            Validate.isTrue(prefix.isLegalPrefix(), "allowed route prefix must be legal");
+            (prefix.getType() == IpResourceType.IPv4 ? ipv4 : ipv6).add(allowedRoute);
+        }
+
+        ByteBuffer records = ByteBuffer.allocate(ipv4.size() * IPV4_RECORD_SIZE + ipv6.size() * IPV6_RECORD_SIZE).order(ByteOrder.BIG_ENDIAN);
+        putRecords(records, ipv4, false);
+        putRecords(records, ipv6, true);
+        records.flip();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(serial).putInt(ipv4.size()).putInt(ipv6.size()).putLong(checksum(records));
+        header.flip();
+
+        File temporary = new File(file.getPath() + ".tmp");
+        try (RandomAccessFile out = new RandomAccessFile(temporary, "rw")) {
+            out.setLength(0);
+            FileChannel channel = out.getChannel();
+            while (header.hasRemaining() || records.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, records});
+            }
+            channel.force(true);
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Maps the file into memory. The checksum is verified once when opening, after that queries read the mapped
+     * records directly.
+     */
+    public static MappedAllowedRouteTable open(File file) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+        }
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("not an allowed route table: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported allowed route table version " + buffer.getInt(4) + ": " + file);
+        }
+        long serial = buffer.getLong(8);
+        int ipv4Count = buffer.getInt(16);
+        int ipv6Count = buffer.getInt(20);
+        long expectedSize = HEADER_SIZE + (long) ipv4Count * IPV4_RECORD_SIZE + (long) ipv6Count * IPV6_RECORD_SIZE;
+        if (ipv4Count < 0 || ipv6Count < 0 || buffer.limit() != expectedSize) {
+            throw new IOException("allowed route table has invalid size: " + file);
+        }
+        ByteBuffer records = buffer.duplicate();
+        records.position(HEADER_SIZE);
+        if (checksum(records) != buffer.getLong(24)) {
+            throw new IOException("allowed route table checksum mismatch: " + file);
+        }
+        return new MappedAllowedRouteTable(buffer, serial, ipv4Count, ipv6Count);
+    }
+
+    public long getSerial() {
+        return serial;
+    }
+
+    public int size() {
+        return ipv4Count + ipv6Count;
+    }
+
+    @Override
+    public RouteValidityState validate(AnnouncedRoute announcedRoute) {
+        IpRange prefix = announcedRoute.getPrefix();
+        long asn = announcedRoute.getOriginAsn().longValue();
+        if (prefix.getType() == IpResourceType.IPv4) {
+            return validateIpv4(PrefixTrie.high(prefix) >>> 32, prefix.getPrefixLength(), asn);
+        }
+        return validateIpv6(PrefixTrie.high(prefix), PrefixTrie.low(prefix), prefix.getPrefixLength(), asn);
+    }
+
+    /**
+     * Looks up the covering prefix of every length from least to most specific, each with a binary search.
+     */
+    @Override
+    public RouteValidityState validateIpv4(long address, int prefixLength, long asn) {
+        Validate.isTrue(prefixLength >= 0 && prefixLength <= 32, "prefixLength out of bounds");
+        RouteValidityState result = RouteValidityState.UNKNOWN;
+        for (int length = 0; length <= prefixLength; length++) {
+            int covering = (int) (address & (0xffffffffL << (32 - length)));
+            for (int i = ipv4LowerBound(covering, length); i < ipv4Count; i++) {
+                int offset = HEADER_SIZE + i * IPV4_RECORD_SIZE;
+                if (buffer.getInt(offset) != covering || (buffer.get(offset + 4) & 0xff) != length) {
+                    break;
+                }
+                RouteValidityState state = validate(offset + 5, prefixLength, asn);
+                if (state == RouteValidityState.VALID) {
+                    return state;
+                }
+                result = state;
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public RouteValidityState validateIpv6(long addressHigh, long addressLow, int prefixLength, long asn) {
+        Validate.isTrue(prefixLength >= 0 && prefixLength <= 128, "prefixLength out of bounds");
+        RouteValidityState result = RouteValidityState.UNKNOWN;
+        for (int length = 0; length <= prefixLength; length++) {
+            long high = addressHigh & highMask(length);
+            long low = addressLow & lowMask(length);
+            for (int i = ipv6LowerBound(high, low, length); i < ipv6Count; i++) {
+                int offset = ipv6Offset + i * IPV6_RECORD_SIZE;
+                if (buffer.getLong(offset) != high || buffer.getLong(offset + 8) != low || (buffer.get(offset + 16) & 0xff) != length) {
+                    break;
+                }
+                RouteValidityState state = validate(offset + 17, prefixLength, asn);
+                if (state == RouteValidityState.VALID) {
+                    return state;
+                }
+                result = state;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Validates against the maximum length and ASN of a record, starting at the maximum length field.
+     */
+    private RouteValidityState validate(int offset, int prefixLength, long asn) {
+        if (buffer.getInt(offset + 3) != (int) asn) {
+            return RouteValidityState.INVALID_ASN;
+        }
+        if (prefixLength > (buffer.get(offset) & 0xff)) {
+            return RouteValidityState.INVALID_LENGTH;
+        }
+        return RouteValidityState.VALID;
+    }
+
+    private int ipv4LowerBound(int address, int length) {
+        int low = 0;
+        int high = ipv4Count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int offset = HEADER_SIZE + middle * IPV4_RECORD_SIZE;
+            int c = Integer.compareUnsigned(buffer.getInt(offset), address);
+            if (c == 0) {
+                c = Integer.compare(buffer.get(offset + 4) & 0xff, length);
+            }
+            if (c < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int ipv6LowerBound(long addressHigh, long addressLow, int length) {
+        int low = 0;
+        int high = ipv6Count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int offset = ipv6Offset + middle * IPV6_RECORD_SIZE;
+            int c = Long.compareUnsigned(buffer.getLong(offset), addressHigh);
+            if (c == 0) {
+                c = Long.compareUnsigned(buffer.getLong(offset + 8), addressLow);
+            }
+            if (c == 0) {
+                c = Integer.compare(buffer.get(offset + 16) & 0xff, length);
+            }
+            if (c < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static long highMask(int length) {
+        if (length == 0) {
+            return 0L;
+        }
+        return length >= 64 ? -1L : -1L << (64 - length);
+    }
+
+    private static long lowMask(int length) {
+        if (length <= 64) {
+            return 0L;
+        }
+        return length == 128 ? -1L : -1L << (128 - length);
+    }
+
+    private static void putRecords(ByteBuffer records, List<AllowedRoute> allowedRoutes, boolean ipv6) {
+        final int count = allowedRoutes.size();
+        final long[] highs = new long[count];
+        final long[] lows = new long[count];
+        final int[] lengths = new int[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            IpRange prefix = allowedRoutes.get(i).getPrefix();
+            highs[i] = PrefixTrie.high(prefix);
+            lows[i] = PrefixTrie.low(prefix);
+            lengths[i] = prefix.getPrefixLength();
+            order[i] = i;
+        }
+        // Arrays.sort on objects is stable, so routes with the same prefix keep their order
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer i1, Integer i2) {
+                int rc = Long.compareUnsigned(highs[i1], highs[i2]);
+                if (rc == 0) {
+                    rc = Long.compareUnsigned(lows[i1], lows[i2]);
+                }
+                if (rc == 0) {
+                    rc = Integer.compare(lengths[i1], lengths[i2]);
+                }
+                return rc;
+            }
+        });
+
+        for (int i : order) {
+            AllowedRoute allowedRoute = allowedRoutes.get(i);
+            if (ipv6) {
+                records.putLong(highs[i]);
+                records.putLong(lows[i]);
+            } else {
+                records.putInt((int) (highs[i] >>> 32));
+            }
+            records.put((byte) lengths[i]);
+            records.put((byte) allowedRoute.getMaximumLength());
+            records.putShort((short) 0);
+            records.putInt((int) allowedRoute.getAsn().longValue());
+        }
+    }
+
+    private static long checksum(ByteBuffer records) {
+        CRC32 crc = new CRC32();
+        crc.update(records.duplicate());
+        return crc.getValue();
+    }
+}
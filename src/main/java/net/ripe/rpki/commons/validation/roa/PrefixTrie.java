@@ -0,0 +1,196 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResourceType;
+import net.ripe.ipresource.Ipv4Address;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Immutable binary trie over prefixes of at most 128 bits, holding the ASN and maximum length of the allowed
+ * routes for every prefix in parallel primitive arrays.
+ * <p>
+ * Prefix bits are stored left aligned in two longs, so an IPv4 address occupies the 32 most significant bits
+ * of <code>high</code>. Node 0 is the root; a child index of 0 therefore means "no child". The routes of node
+ * <code>n</code> are stored at indexes <code>routeStart[n]</code> (inclusive) to <code>routeStart[n + 1]</code>
+ * (exclusive), in the order they were added.
+ */
+final class PrefixTrie {
+
+    private static final int NO_CHILD = 0;
+
+    private final int[] zeroChild;
+    private final int[] oneChild;
+    private final int[] routeStart;
+    private final int[] asns;
+    private final int[] maximumLengths;
+
+    private PrefixTrie(int[] zeroChild, int[] oneChild, int[] routeStart, int[] asns, int[] maximumLengths) {
+        this.zeroChild = zeroChild;
+        this.oneChild = oneChild;
+        this.routeStart = routeStart;
+        this.asns = asns;
+        this.maximumLengths = maximumLengths;
+    }
+
+    int size() {
+        return asns.length;
+    }
+
+    /**
+     * Same semantics as {@link RouteOriginValidationPolicy#validateAnnouncedRoute}: routes are visited from
+     * the least to the most specific covering prefix. The first VALID route wins, otherwise the last invalid
+     * route determines the result.
+     */
+    RouteValidityState validate(long high, long low, int prefixLength, int asn) {
+        RouteValidityState result = RouteValidityState.UNKNOWN;
+        int node = 0;
+        for (int depth = 0; ; depth++) {
+            for (int i = routeStart[node]; i < routeStart[node + 1]; i++) {
+                if (asns[i] != asn) {
+                    result = RouteValidityState.INVALID_ASN;
+                } else if (prefixLength > maximumLengths[i]) {
+                    result = RouteValidityState.INVALID_LENGTH;
+                } else {
+                    return RouteValidityState.VALID;
+                }
+            }
+            if (depth == prefixLength) {
+                return result;
+            }
+            node = bit(high, low, depth) ? oneChild[node] : zeroChild[node];
+            if (node == NO_CHILD) {
+                return result;
+            }
+        }
+    }
+
+    static boolean bit(long high, long low, int index) {
+        return index < 64
+            ? (high >>> (63 - index) & 1L) != 0
+            : (low >>> (127 - index) & 1L) != 0;
+    }
+
+    static long high(IpRange prefix) {
+        if (prefix.getType() == IpResourceType.IPv4) {
+            return ((Ipv4Address) prefix.getStart()).longValue() << 32;
+        }
+        BigInteger value = prefix.getStart().getValue();
+        long result = 0;
+        for (int i = 127; i >= 64; i--) {
+            result = (result << 1) | (value.testBit(i) ? 1L : 0L);
+        }
+        return result;
+    }
+
+    static long low(IpRange prefix) {
+        if (prefix.getType() == IpResourceType.IPv4) {
+            return 0L;
+        }
+        return prefix.getStart().getValue().longValue();
+    }
+
+    /**
+     * Collects routes and builds the trie in one go, so that the resulting arrays are exactly sized and the
+     * routes of each node are stored contiguously.
+     */
+    static final class Builder {
+        private long[] highs = new long[16];
+        private long[] lows = new long[16];
+        private int[] lengths = new int[16];
+        private int[] asns = new int[16];
+        private int[] maximumLengths = new int[16];
+        private int count;
+
+        Builder add(long high, long low, int prefixLength, int asn, int maximumLength) {
+            if (count == highs.length) {
+                int capacity = count * 2;
+                highs = Arrays.copyOf(highs, capacity);
+                lows = Arrays.copyOf(lows, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                asns = Arrays.copyOf(asns, capacity);
+                maximumLengths = Arrays.copyOf(maximumLengths, capacity);
+            }
+            highs[count] = high;
+            lows[count] = low;
+            lengths[count] = prefixLength;
+            asns[count] = asn;
+            maximumLengths[count] = maximumLength;
+            count++;
+            return this;
+        }
+
+        PrefixTrie build() {
+            int[] zeroChild = new int[16];
+            int[] oneChild = new int[16];
+            int nodeCount = 1;
+            int[] routeNode = new int[count];
+
+            for (int r = 0; r < count; r++) {
+                int node = 0;
+                for (int depth = 0; depth < lengths[r]; depth++) {
+                    int[] children = bit(highs[r], lows[r], depth) ? oneChild : zeroChild;
+                    if (children[node] == NO_CHILD) {
+                        if (nodeCount == zeroChild.length) {
+                            zeroChild = Arrays.copyOf(zeroChild, nodeCount * 2);
+                            oneChild = Arrays.copyOf(oneChild, nodeCount * 2);
+                            children = bit(highs[r], lows[r], depth) ? oneChild : zeroChild;
+                        }
+                        children[node] = nodeCount++;
+                    }
+                    node = children[node];
+                }
+                routeNode[r] = node;
+            }
+
+            // Counting sort of the routes by node, stable so routes keep their insertion order.
+            int[] routeStart = new int[nodeCount + 1];
+            for (int r = 0; r < count; r++) {
+                routeStart[routeNode[r] + 1]++;
+            }
+            for (int n = 0; n < nodeCount; n++) {
+                routeStart[n + 1] += routeStart[n];
+            }
+            int[] next = Arrays.copyOf(routeStart, nodeCount);
+            int[] sortedAsns = new int[count];
+            int[] sortedMaximumLengths = new int[count];
+            for (int r = 0; r < count; r++) {
+                int i = next[routeNode[r]]++;
+                sortedAsns[i] = asns[r];
+                sortedMaximumLengths[i] = maximumLengths[r];
+            }
+
+            return new PrefixTrie(Arrays.copyOf(zeroChild, nodeCount), Arrays.copyOf(oneChild, nodeCount), routeStart, sortedAsns, sortedMaximumLengths);
+        }
+    }
+}
@@ -33,9 +33,14 @@ import net.ripe.ipresource.IpRange;
 import net.ripe.ipresource.IpResource;
 import net.ripe.ipresource.etree.IpResourceIntervalStrategy;
 import net.ripe.ipresource.etree.NestedIntervalMap;
+import org.apache.commons.lang.Validate;
 
+import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
 
 /**
@@ -43,6 +48,11 @@ import java.util.List;
  */
 public class RouteOriginValidationPolicy {
 
+    /**
+     * Number of routes validated by a single fork/join task before the work is no longer split.
+     */
+    private static final int BATCH_SIZE = 4096;
+
     public static NestedIntervalMap<IpResource, List<AllowedRoute>> allowedRoutesToNestedIntervalMap(Iterable<? extends AllowedRoute> allowedRoutes) {
         NestedIntervalMap<IpResource, List<AllowedRoute>> result = new NestedIntervalMap<IpResource, List<AllowedRoute>>(IpResourceIntervalStrategy.getInstance());
         for (AllowedRoute allowedRoute : allowedRoutes) {
@@ -58,6 +68,67 @@ public class RouteOriginValidationPolicy {
         return result;
     }
 
+    public static AllowedRouteTrie allowedRoutesToTrie(Iterable<? extends AllowedRoute> allowedRoutes) {
+        return AllowedRouteTrie.build(allowedRoutes);
+    }
+
+    public RouteValidityState validateAnnouncedRoute(RouteOriginValidationIndex allowedRoutes, AnnouncedRoute announcedRoute) {
+        return allowedRoutes.validate(announcedRoute);
+    }
+
+    /**
+     * Validates all announced routes in parallel on the common fork/join pool.
+     *
+     * @return the {@link RouteValidityState#ordinal()} of every route, in iteration order of the collection.
+     * Use {@link RouteValidityState#fromOrdinal(int)} to convert back.
+     */
+    public byte[] validateAnnouncedRoutes(RouteOriginValidationIndex allowedRoutes, Collection<? extends AnnouncedRoute> announcedRoutes) {
+        return validateAnnouncedRoutes(ForkJoinPool.commonPool(), allowedRoutes, announcedRoutes);
+    }
+
+    public byte[] validateAnnouncedRoutes(ForkJoinPool pool, RouteOriginValidationIndex allowedRoutes, Collection<? extends AnnouncedRoute> announcedRoutes) {
+        final AnnouncedRoute[] routes = announcedRoutes.toArray(new AnnouncedRoute[0]);
+        final byte[] result = new byte[routes.length];
+        pool.invoke(new BatchValidationTask(0, routes.length,
+            i -> result[i] = (byte) allowedRoutes.validate(routes[i]).ordinal()));
+        return result;
+    }
+
+    /**
+     * Validates IPv4 routes given as parallel arrays of addresses, prefix lengths and origin ASNs.
+     *
+     * @return the {@link RouteValidityState#ordinal()} of every route.
+     */
+    public byte[] validateIpv4Routes(RouteOriginValidationIndex allowedRoutes, long[] addresses, int[] prefixLengths, long[] asns) {
+        return validateIpv4Routes(ForkJoinPool.commonPool(), allowedRoutes, addresses, prefixLengths, asns);
+    }
+
+    public byte[] validateIpv4Routes(ForkJoinPool pool, RouteOriginValidationIndex allowedRoutes, long[] addresses, int[] prefixLengths, long[] asns) {
+        Validate.isTrue(addresses.length == prefixLengths.length && addresses.length == asns.length, "arrays must have equal length");
+        final byte[] result = new byte[addresses.length];
+        pool.invoke(new BatchValidationTask(0, addresses.length,
+            i -> result[i] = (byte) allowedRoutes.validateIpv4(addresses[i], prefixLengths[i], asns[i]).ordinal()));
+        return result;
+    }
+
+    /**
+     * Validates IPv6 routes given as parallel arrays of the high and low 64 address bits, prefix lengths and
+     * origin ASNs.
+     *
+     * @return the {@link RouteValidityState#ordinal()} of every route.
+     */
+    public byte[] validateIpv6Routes(RouteOriginValidationIndex allowedRoutes, long[] addressHighs, long[] addressLows, int[] prefixLengths, long[] asns) {
+        return validateIpv6Routes(ForkJoinPool.commonPool(), allowedRoutes, addressHighs, addressLows, prefixLengths, asns);
+    }
+
+    public byte[] validateIpv6Routes(ForkJoinPool pool, RouteOriginValidationIndex allowedRoutes, long[] addressHighs, long[] addressLows, int[] prefixLengths, long[] asns) {
+        Validate.isTrue(addressHighs.length == addressLows.length && addressHighs.length == prefixLengths.length && addressHighs.length == asns.length, "arrays must have equal length");
+        final byte[] result = new byte[addressHighs.length];
+        pool.invoke(new BatchValidationTask(0, addressHighs.length,
+            i -> result[i] = (byte) allowedRoutes.validateIpv6(addressHighs[i], addressLows[i], prefixLengths[i], asns[i]).ordinal()));
+        return result;
+    }
+
     public RouteValidityState validateAnnouncedRoute(NestedIntervalMap<IpResource, ? extends Iterable<? extends AllowedRoute>> allowedRoutes, AnnouncedRoute announcedRoute) {
         RouteValidityState result = RouteValidityState.UNKNOWN;
         for (Iterable<? extends AllowedRoute> routes : allowedRoutes.findExactAndAllLessSpecific(announcedRoute.getPrefix())) {
@@ -79,6 +150,32 @@ public class RouteOriginValidationPolicy {
         return result;
     }
 
+    private static class BatchValidationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final IntConsumer validation;
+
+        BatchValidationTask(int from, int to, IntConsumer validation) {
+            this.from = from;
+            this.to = to;
+            this.validation = validation;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_SIZE) {
+                for (int i = from; i < to; i++) {
+                    validation.accept(i);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BatchValidationTask(from, middle, validation), new BatchValidationTask(middle, to, validation));
+            }
+        }
+    }
+
     private RouteValidityState validate(AllowedRoute allowedRoute, AnnouncedRoute announcedRoute) {
         IpRange announcedPrefix = announcedRoute.getPrefix();
 
@@ -0,0 +1,67 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.rpki.commons.util.EqualsSupport;
+import org.apache.commons.lang.Validate;
+
+import java.io.Serializable;
+
+/**
+ * Change of the validity state of an announced route caused by a change in the allowed routes.
+ */
+public class RouteValidityChange extends EqualsSupport implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final AnnouncedRoute announcedRoute;
+    private final RouteValidityState previousState;
+    private final RouteValidityState currentState;
+
+    public RouteValidityChange(AnnouncedRoute announcedRoute, RouteValidityState previousState, RouteValidityState currentState) {
+        Validate.notNull(announcedRoute, "announcedRoute is required");
+        Validate.notNull(previousState, "previousState is required");
+        Validate.notNull(currentState, "currentState is required");
+        this.announcedRoute = announcedRoute;
+        this.previousState = previousState;
+        this.currentState = currentState;
+    }
+
+    public AnnouncedRoute getAnnouncedRoute() {
+        return announcedRoute;
+    }
+
+    public RouteValidityState getPreviousState() {
+        return previousState;
+    }
+
+    public RouteValidityState getCurrentState() {
+        return currentState;
+    }
+}
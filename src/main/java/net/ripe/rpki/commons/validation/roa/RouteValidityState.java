@@ -30,5 +30,11 @@
 package net.ripe.rpki.commons.validation.roa;
 
 public enum RouteValidityState {
-    VALID, INVALID_ASN, INVALID_LENGTH, UNKNOWN
+    VALID, INVALID_ASN, INVALID_LENGTH, UNKNOWN;
+
+    private static final RouteValidityState[] VALUES = values();
+
+    public static RouteValidityState fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
 }
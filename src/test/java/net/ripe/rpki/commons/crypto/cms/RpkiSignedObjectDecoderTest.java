@@ -0,0 +1,133 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.cms;
+
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsParser;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsTest;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.bouncycastle.asn1.ASN1ObjectIdentifier;
+import org.bouncycastle.cms.CMSSignedDataParser;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RpkiSignedObjectDecoderTest {
+
+    @Test
+    public void shouldDecodeDerEncodedSignedObject() throws Exception {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+
+        RpkiSignedObjectDecoder decoded = RpkiSignedObjectDecoder.decode(roaCms.getEncoded());
+
+        assertNotNull(decoded);
+        assertEquals(roaCms.getContentType(), decoded.getContentType());
+        assertEquals(1, decoded.getCertificateCount());
+        assertEquals(1, decoded.getSignerInfos().size());
+    }
+
+    @Test
+    public void shouldNotDecodeGarbage() {
+        assertNull(RpkiSignedObjectDecoder.decode(new byte[]{0x30, 0x03, 0x02, 0x01}));
+        assertNull(RpkiSignedObjectDecoder.decode(new byte[0]));
+    }
+
+    @Test
+    public void shouldLeaveBerEncodedObjectsToGenericParser() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        byte[] ber = toIndefiniteLength(roaCms.getEncoded());
+
+        assertNull(RpkiSignedObjectDecoder.decode(ber));
+
+        RoaCmsParser derParser = new RoaCmsParser();
+        derParser.parse(ValidationResult.withLocation("roa.roa"), roaCms.getEncoded());
+        RoaCmsParser berParser = new RoaCmsParser();
+        berParser.parse(ValidationResult.withLocation("roa.roa"), ber);
+
+        assertFalse(derParser.getValidationResult().hasFailures());
+        assertEquals(berParser.getValidationResult().getAllValidationChecksForCurrentLocation(), derParser.getValidationResult().getAllValidationChecksForCurrentLocation());
+        assertEquals(berParser.getRoaCms().getPrefixes(), derParser.getRoaCms().getPrefixes());
+    }
+
+    @Test
+    public void shouldCallContentHookForDerAndBerEncodedObjects() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        List<ASN1ObjectIdentifier> contentTypes = new ArrayList<>();
+        RoaCmsParser parser = new RoaCmsParser() {
+            @Override
+            protected void parseContent(ASN1ObjectIdentifier contentType, InputStream content) throws IOException {
+                contentTypes.add(contentType);
+                super.parseContent(contentType, content);
+            }
+        };
+
+        parser.parse(ValidationResult.withLocation("roa.roa"), roaCms.getEncoded());
+        parser.parse(ValidationResult.withLocation("roa.roa"), toIndefiniteLength(roaCms.getEncoded()));
+
+        assertEquals(Arrays.asList(roaCms.getContentType(), roaCms.getContentType()), contentTypes);
+        assertFalse(parser.getValidationResult().hasFailures());
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void shouldCallDeprecatedContentHookForBerEncodedObjects() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        List<ASN1ObjectIdentifier> contentTypes = new ArrayList<>();
+        RoaCmsParser parser = new RoaCmsParser() {
+            @Override
+            protected void parseContent(CMSSignedDataParser sp) {
+                contentTypes.add(sp.getSignedContent().getContentType());
+                super.parseContent(sp);
+            }
+        };
+
+        parser.parse(ValidationResult.withLocation("roa.roa"), roaCms.getEncoded());
+        parser.parse(ValidationResult.withLocation("roa.roa"), toIndefiniteLength(roaCms.getEncoded()));
+
+        assertEquals(Collections.singletonList(roaCms.getContentType()), contentTypes);
+        assertFalse(parser.getValidationResult().hasFailures());
+    }
+
+    private static byte[] toIndefiniteLength(byte[] der) {
+        int headerLength = (der[1] & 0x80) == 0 ? 2 : 2 + (der[1] & 0x7f);
+        byte[] ber = new byte[der.length - headerLength + 4];
+        ber[0] = der[0];
+        ber[1] = (byte) 0x80;
+        System.arraycopy(der, headerLength, ber, 2, der.length - headerLength);
+        return ber;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.crl;
+
+import net.ripe.rpki.commons.validation.ValidationLocation;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import net.ripe.rpki.commons.validation.ValidationString;
+import net.ripe.rpki.commons.validation.objectvalidators.CertificateRepositoryObjectValidationContext;
+import org.joda.time.DateTimeUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.net.URI;
+
+import static net.ripe.rpki.commons.crypto.crl.X509CrlTest.*;
+import static net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateTest.*;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+
+public class CachingCrlLocatorTest {
+
+    private static final URI CRL_URI = URI.create("rsync://host/ca/ca.crl");
+
+    private X509Crl crl;
+    private CrlLocator crlLocator;
+    private CertificateRepositoryObjectValidationContext context;
+    private CachingCrlLocator subject;
+
+    @Before
+    public void setUp() {
+        crl = createCrl();
+        crlLocator = mock(CrlLocator.class);
+        when(crlLocator.getCrl(any(URI.class), any(CertificateRepositoryObjectValidationContext.class), any(ValidationResult.class))).thenAnswer((invocation) -> {
+            ValidationResult result = (ValidationResult) invocation.getArguments()[2];
+            result.pass(ValidationString.CRL_PARSED);
+            return crl;
+        });
+        context = new CertificateRepositoryObjectValidationContext(TEST_TA_URI, createSelfSignedCaResourceCertificate());
+        subject = new CachingCrlLocator(crlLocator);
+    }
+
+    @After
+    public void tearDown() {
+        DateTimeUtils.setCurrentMillisSystem();
+    }
+
+    @Test
+    public void shouldReturnCachedCrlAndRecordChecksOnce() {
+        ValidationResult first = ValidationResult.withLocation(new ValidationLocation(CRL_URI));
+        ValidationResult second = ValidationResult.withLocation(new ValidationLocation(CRL_URI));
+
+        assertSame(crl, subject.getCrl(CRL_URI, context, first));
+        assertSame(crl, subject.getCrl(CRL_URI, context, second));
+
+        verify(crlLocator, times(1)).getCrl(any(URI.class), any(CertificateRepositoryObjectValidationContext.class), any(ValidationResult.class));
+        assertEquals(1, first.getAllValidationChecksForCurrentLocation().size());
+        assertTrue(second.getAllValidationChecksForCurrentLocation().isEmpty());
+        assertEquals(1, subject.getHitCount());
+        assertEquals(1, subject.getMissCount());
+    }
+
+    @Test
+    public void shouldNotCacheCrlWithFailures() {
+        doAnswer((invocation) -> {
+            ValidationResult result = (ValidationResult) invocation.getArguments()[2];
+            result.error(ValidationString.CRL_SIGNATURE_VALID);
+            return crl;
+        }).when(crlLocator).getCrl(any(URI.class), any(CertificateRepositoryObjectValidationContext.class), any(ValidationResult.class));
+        ValidationResult result = ValidationResult.withLocation(new ValidationLocation(CRL_URI));
+
+        subject.getCrl(CRL_URI, context, result);
+        subject.getCrl(CRL_URI, context, result);
+
+        assertEquals(0, subject.size());
+        assertEquals(2, subject.getMissCount());
+        assertTrue(result.hasFailureForCurrentLocation());
+    }
+
+    @Test
+    public void shouldExpireCrlAtNextUpdateTime() {
+        subject.getCrl(CRL_URI, context, ValidationResult.withLocation(new ValidationLocation(CRL_URI)));
+
+        DateTimeUtils.setCurrentMillisFixed(crl.getNextUpdateTime().getMillis());
+        subject.getCrl(CRL_URI, context, ValidationResult.withLocation(new ValidationLocation(CRL_URI)));
+
+        assertEquals(1, subject.getExpiredCount());
+        assertEquals(0, subject.size());
+        assertEquals(2, subject.getMissCount());
+    }
+
+    @Test
+    public void shouldInvalidateCrl() {
+        subject.getCrl(CRL_URI, context, ValidationResult.withLocation(new ValidationLocation(CRL_URI)));
+        assertEquals(1, subject.size());
+
+        subject.invalidate(CRL_URI);
+
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    public void shouldCacheCrlPerIssuer() {
+        CertificateRepositoryObjectValidationContext otherContext = new CertificateRepositoryObjectValidationContext(TEST_CA_URI,
+            createSelfSignedCaCertificateBuilder().withResources(context.getCertificate().getResources()).withSerial(BigInteger.ONE).build());
+
+        subject.getCrl(CRL_URI, context, ValidationResult.withLocation(new ValidationLocation(CRL_URI)));
+        subject.getCrl(CRL_URI, otherContext, ValidationResult.withLocation(new ValidationLocation(CRL_URI)));
+
+        assertEquals(2, subject.size());
+        assertEquals(0, subject.getHitCount());
+    }
+}
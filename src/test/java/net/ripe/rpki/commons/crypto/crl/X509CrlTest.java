@@ -37,6 +37,7 @@ import net.ripe.rpki.commons.validation.ValidationOptions;
 import net.ripe.rpki.commons.validation.ValidationResult;
 import net.ripe.rpki.commons.validation.ValidationString;
 import net.ripe.rpki.commons.validation.objectvalidators.CertificateRepositoryObjectValidationContext;
+import org.apache.commons.lang.SerializationUtils;
 import org.joda.time.DateTime;
 import org.junit.Test;
 
@@ -44,6 +45,11 @@ import javax.security.auth.x500.X500Principal;
 import java.math.BigInteger;
 import java.net.URI;
 import java.security.KeyPair;
+import java.security.SignatureException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509CRLEntry;
+import java.util.Arrays;
+import java.util.Random;
 
 import static net.ripe.rpki.commons.crypto.util.KeyPairFactoryTest.*;
 import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.*;
@@ -88,6 +94,94 @@ public class X509CrlTest {
     }
 
 
+    @Test
+    public void shouldBaseEqualityOnFingerprint() {
+        X509Crl crl = createCrl();
+        X509Crl copy = new X509Crl(crl.getEncoded().clone());
+        X509Crl other = getCrlWithKeyPair(SECOND_TEST_KEY_PAIR);
+
+        assertSame(crl.getFingerprint(), crl.getFingerprint());
+        assertEquals(crl.getFingerprint(), copy.getFingerprint());
+        assertEquals(crl, copy);
+        assertEquals(crl.hashCode(), copy.hashCode());
+        assertNotEquals(crl, other);
+        assertNotEquals(crl.getFingerprint(), other.getFingerprint());
+    }
+
+    @Test
+    public void shouldLookUpRevokedSerialNumbers() {
+        X509CrlBuilder builder = getCrlBuilder();
+        DateTime revocationTime = UTC.dateTime().minusDays(1).withMillisOfSecond(0);
+        Random random = new Random(42);
+        BigInteger[] serials = new BigInteger[2000];
+        for (int i = 0; i < serials.length; i++) {
+            serials[i] = new BigInteger(i % 10 == 0 ? 160 : 60, random).add(BigInteger.ONE);
+            builder.addEntry(serials[i], revocationTime.minusMinutes(i));
+        }
+        builder.addEntry(BigInteger.valueOf(Long.MAX_VALUE), revocationTime);
+        X509Crl crl = builder.build(TEST_KEY_PAIR.getPrivate());
+        X509Crl subject = new X509Crl(crl.getEncoded());
+
+        assertEquals(serials.length + 1, subject.getRevokedCertificateCount());
+        for (BigInteger serial : serials) {
+            X509CRLEntry expected = crl.getCrl().getRevokedCertificate(serial);
+            assertTrue(subject.isRevoked(serial));
+            assertEquals(new X509Crl.Entry(expected), subject.getRevokedCertificate(serial));
+        }
+        assertTrue(subject.isRevoked(BigInteger.valueOf(Long.MAX_VALUE)));
+        assertFalse(subject.isRevoked(BigInteger.ZERO));
+        assertFalse(subject.isRevoked(BigInteger.ONE.shiftLeft(64)));
+        assertNull(subject.getRevokedCertificate(BigInteger.ZERO));
+        assertEquals(crl.getRevokedCertificates(), subject.getRevokedCertificates());
+    }
+
+    @Test
+    public void shouldCheckRevocationOfCertificateBySerialNumber() {
+        X509ResourceCertificate certificate = createSelfSignedCaResourceCertificate();
+        X509Crl revoked = getCrlBuilder().addEntry(certificate.getSerialNumber(), UTC.dateTime()).build(TEST_KEY_PAIR.getPrivate());
+
+        assertTrue(revoked.isRevoked(certificate.getCertificate()));
+        assertFalse(createCrl().isRevoked(certificate.getCertificate()));
+    }
+
+    @Test
+    public void shouldDecodeFieldsWithoutJcaCrl() {
+        X509Crl crl = getCrlBuilder().addEntry(BigInteger.ONE, UTC.dateTime()).build(TEST_KEY_PAIR.getPrivate());
+        X509Crl subject = new X509Crl(crl.getEncoded());
+        X509CRL expected = crl.getCrl();
+
+        assertEquals(expected.getIssuerX500Principal(), subject.getIssuer());
+        assertEquals(UTC.dateTime(expected.getThisUpdate()), subject.getThisUpdateTime());
+        assertEquals(UTC.dateTime(expected.getNextUpdate()), subject.getNextUpdateTime());
+        assertEquals(expected.getVersion(), subject.getVersion());
+        assertEquals(expected.getSigAlgName(), subject.getSigAlgName());
+        assertEquals(BigInteger.TEN, subject.getNumber());
+        assertArrayEquals(KeyPairUtil.getKeyIdentifier(TEST_KEY_PAIR.getPublic()), subject.getAuthorityKeyIdentifier());
+    }
+
+    @Test
+    public void shouldVerifySignatureOverEncodedCrl() throws SignatureException {
+        byte[] encoded = createCrl().getEncoded();
+        new X509Crl(encoded).verify(TEST_KEY_PAIR.getPublic());
+
+        byte[] tampered = encoded.clone();
+        tampered[tampered.length - 1] ^= 1;
+        try {
+            new X509Crl(tampered).verify(TEST_KEY_PAIR.getPublic());
+            fail("SignatureException expected");
+        } catch (SignatureException expected) {
+        }
+    }
+
+    @Test
+    public void shouldRejectInvalidEncoding() {
+        ValidationResult result = ValidationResult.withLocation(ROOT_MANIFEST_CRL_LOCATION);
+        byte[] encoded = createCrl().getEncoded();
+
+        assertNull(X509Crl.parseDerEncoded(Arrays.copyOf(encoded, encoded.length - 1), result));
+        assertTrue(result.hasFailureForCurrentLocation());
+    }
+
     @Test
     public void shouldValidateCrl() {
         X509Crl subject = createCrl();
@@ -120,6 +214,61 @@ public class X509CrlTest {
         assertEquals(ValidationString.CRL_SIGNATURE_VALID, result.getFailures(rootMftCrlValidationLocation).get(0).getKey());
     }
 
+    @Test
+    public void shouldVerifySignatureOnlyOncePerPublicKey() throws SignatureException {
+        X509Crl subject = createCrl();
+        assertFalse(subject.isVerifiedWith(TEST_KEY_PAIR.getPublic()));
+
+        subject.verify(TEST_KEY_PAIR.getPublic());
+        subject.verify(TEST_KEY_PAIR.getPublic());
+        subject.verify(TEST_KEY_PAIR.getPublic());
+
+        assertTrue(subject.isVerifiedWith(TEST_KEY_PAIR.getPublic()));
+        assertEquals(2, subject.getSkippedSignatureVerificationCount());
+    }
+
+    @Test
+    public void shouldCountSkippedSignatureVerificationsAfterDeserialization() throws SignatureException {
+        X509Crl subject = createCrl();
+        subject.verify(TEST_KEY_PAIR.getPublic());
+
+        X509Crl deserialized = (X509Crl) SerializationUtils.clone(subject);
+        deserialized.verify(TEST_KEY_PAIR.getPublic());
+        deserialized.verify(TEST_KEY_PAIR.getPublic());
+
+        assertEquals(subject, deserialized);
+        assertEquals(1, deserialized.getSkippedSignatureVerificationCount());
+    }
+
+    @Test
+    public void shouldNotRememberFailedSignatureVerification() {
+        X509Crl subject = getCrlWithKeyPair(SECOND_TEST_KEY_PAIR);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                subject.verify(TEST_KEY_PAIR.getPublic());
+                fail("signature should not verify");
+            } catch (SignatureException expected) {
+                // expected
+            }
+        }
+
+        assertFalse(subject.isVerifiedWith(TEST_KEY_PAIR.getPublic()));
+        assertEquals(0, subject.getSkippedSignatureVerificationCount());
+    }
+
+    @Test
+    public void shouldReuseSignatureVerificationOfCrlValidator() throws SignatureException {
+        X509Crl subject = createCrl();
+        X509ResourceCertificate selfSignedCaResourceCertificate = createSelfSignedCaResourceCertificate();
+        CertificateRepositoryObjectValidationContext context = new CertificateRepositoryObjectValidationContext(ROOT_MANIFEST_CRL_LOCATION, selfSignedCaResourceCertificate);
+
+        subject.validate(ROOT_MANIFEST_CRL_LOCATION.toString(), context, mock(CrlLocator.class), VALIDATION_OPTIONS, ValidationResult.withLocation(ROOT_MANIFEST_CRL_LOCATION));
+        subject.verify(selfSignedCaResourceCertificate.getPublicKey());
+
+        assertEquals(1, subject.getSkippedSignatureVerificationCount());
+    }
+
     @Test
     public void shouldBePastValidityTime() {
         X509Crl subject = createCrl();
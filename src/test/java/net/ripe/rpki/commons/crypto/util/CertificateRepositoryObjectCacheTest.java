@@ -0,0 +1,120 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.util;
+
+import net.ripe.rpki.commons.crypto.CertificateRepositoryObject;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsTest;
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.crl.X509CrlTest;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import static net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory.createCertificateRepositoryObject;
+import static org.junit.Assert.*;
+
+public class CertificateRepositoryObjectCacheTest {
+
+    private CertificateRepositoryObjectCache cache;
+
+    @Before
+    public void setUp() {
+        cache = new CertificateRepositoryObjectCache(2);
+    }
+
+    @Test
+    public void shouldReplayParseChecksOnCacheHit() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        ValidationResult first = ValidationResult.withLocation("first.roa");
+        ValidationResult second = ValidationResult.withLocation("second.roa");
+        ValidationResult uncached = ValidationResult.withLocation("second.roa");
+
+        CertificateRepositoryObject parsed = createCertificateRepositoryObject(roaCms.getEncoded(), first, cache);
+        CertificateRepositoryObject cached = createCertificateRepositoryObject(roaCms.getEncoded(), second, cache);
+
+        assertSame(parsed, cached);
+        assertEquals(roaCms, cached);
+        createCertificateRepositoryObject(roaCms.getEncoded(), uncached);
+        assertEquals(uncached.getAllValidationChecksForCurrentLocation(), second.getAllValidationChecksForCurrentLocation());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldCacheParseFailures() {
+        byte[] encoded = {0, 1};
+        createCertificateRepositoryObject(encoded, ValidationResult.withLocation("broken.mft"), cache);
+        ValidationResult validationResult = ValidationResult.withLocation("broken.mft");
+
+        assertNull(createCertificateRepositoryObject(encoded, validationResult, cache));
+        assertTrue(validationResult.hasFailureForCurrentLocation());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldKeyOnObjectType() {
+        byte[] encoded = RoaCmsTest.getRoaCms().getEncoded();
+        createCertificateRepositoryObject(encoded, ValidationResult.withLocation("object.roa"), cache);
+
+        ValidationResult validationResult = ValidationResult.withLocation("object.mft");
+        assertNull(createCertificateRepositoryObject(encoded, validationResult, cache));
+        assertTrue(validationResult.hasFailureForCurrentLocation());
+        assertEquals(0, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedObject() {
+        byte[] roa = RoaCmsTest.getRoaCms().getEncoded();
+        byte[] crl = X509CrlTest.createCrl().getEncoded();
+        byte[] broken = {0, 1};
+
+        createCertificateRepositoryObject(roa, ValidationResult.withLocation("a.roa"), cache);
+        createCertificateRepositoryObject(crl, ValidationResult.withLocation("a.crl"), cache);
+        createCertificateRepositoryObject(roa, ValidationResult.withLocation("b.roa"), cache);
+        createCertificateRepositoryObject(broken, ValidationResult.withLocation("b.crl"), cache);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(createCertificateRepositoryObject(roa, ValidationResult.withLocation("c.roa"), cache) instanceof RoaCms);
+        assertTrue(createCertificateRepositoryObject(crl, ValidationResult.withLocation("c.crl"), cache) instanceof X509Crl);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(4, cache.getMissCount());
+    }
+
+    @Test
+    public void shouldNotCacheUnknownObjects() {
+        createCertificateRepositoryObject(new byte[]{0, 1}, ValidationResult.withLocation("file.unknown"), cache);
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getMissCount());
+    }
+}
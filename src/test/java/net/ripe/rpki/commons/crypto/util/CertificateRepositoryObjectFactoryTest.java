@@ -46,8 +46,14 @@ import net.ripe.rpki.commons.validation.ValidationStatus;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory.createCertificateRepositoryObject;
+import static net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory.createCertificateRepositoryObjects;
 import static net.ripe.rpki.commons.validation.ValidationStatus.ERROR;
 import static net.ripe.rpki.commons.validation.ValidationString.*;
 import static org.junit.Assert.*;
@@ -197,4 +203,37 @@ public class CertificateRepositoryObjectFactoryTest {
         assertEquals(3, validationResult.getAllValidationChecksForCurrentLocation().size());
         assertTrue(validationResult.getResultForCurrentLocation(KNOWN_OBJECT_TYPE).isOk());
     }
+
+    @Test
+    public void shouldParseObjectsInBulkInInputOrder() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        X509Crl crl = X509CrlTest.createCrl();
+        Map<String, byte[]> encodedByLocation = new LinkedHashMap<>();
+        for (int i = 0; i < 20; i++) {
+            encodedByLocation.put("roa-" + i + ".roa", roaCms.getEncoded());
+            encodedByLocation.put("crl-" + i + ".crl", crl.getEncoded());
+            encodedByLocation.put("broken-" + i + ".mft", new byte[]{0, 1});
+        }
+        ValidationResult validationResult = ValidationResult.withLocation("repository");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CertificateRepositoryObject> objects;
+        try {
+            objects = createCertificateRepositoryObjects(encodedByLocation, validationResult, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(60, objects.size());
+        int i = 0;
+        for (String location : encodedByLocation.keySet()) {
+            CertificateRepositoryObject object = objects.get(i++);
+            ValidationResult expected = ValidationResult.withLocation(location);
+            assertEquals(createCertificateRepositoryObject(encodedByLocation.get(location), expected), object);
+            assertEquals(expected.getAllValidationChecksForCurrentLocation(), validationResult.getAllValidationChecksForLocation(new ValidationLocation(location)));
+        }
+        assertEquals(new ValidationLocation("repository"), validationResult.getCurrentLocation());
+        assertTrue(validationResult.hasFailureForLocation(new ValidationLocation("broken-0.mft")));
+        assertFalse(validationResult.hasFailureForLocation(new ValidationLocation("roa-0.roa")));
+    }
 }
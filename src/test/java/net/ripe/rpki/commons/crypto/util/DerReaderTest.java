@@ -0,0 +1,84 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.crypto.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DerReaderTest {
+
+    // SEQUENCE { INTEGER 5, OCTET STRING 'ab', [0] { NULL } }
+    private static final byte[] ENCODED = {0x30, 0x0b, 0x02, 0x01, 0x05, 0x04, 0x02, 'a', 'b', (byte) 0xa0, 0x02, 0x05, 0x00};
+
+    @Test
+    public void shouldWalkElements() {
+        DerReader sequence = new DerReader(ENCODED).next(DerReader.SEQUENCE);
+        assertEquals(0, sequence.getOffset());
+        assertEquals(ENCODED.length, sequence.getLength());
+        assertFalse(sequence.hasNext());
+
+        DerReader fields = sequence.contents();
+        assertArrayEquals(new byte[]{5}, fields.next(DerReader.INTEGER).getContents());
+        assertTrue(fields.next(DerReader.OCTET_STRING).contentsEqual(new byte[]{'a', 'b'}));
+        assertEquals(7, fields.getContentOffset());
+        assertEquals(2, fields.getContentLength());
+        assertArrayEquals(new byte[]{(byte) 0xa0, 0x02, 0x05, 0x00}, fields.next(DerReader.contextTag(0, true)).getEncoded());
+        assertFalse(fields.hasNext());
+    }
+
+    @Test
+    public void shouldReadLongFormLength() {
+        byte[] encoded = new byte[3 + 200];
+        encoded[0] = DerReader.OCTET_STRING;
+        encoded[1] = (byte) 0x81;
+        encoded[2] = (byte) 200;
+
+        DerReader reader = new DerReader(encoded).next(DerReader.OCTET_STRING);
+
+        assertEquals(3, reader.getContentOffset());
+        assertEquals(200, reader.getContentLength());
+    }
+
+    @Test(expected = Asn1UtilException.class)
+    public void shouldRejectUnexpectedTag() {
+        new DerReader(ENCODED).next(DerReader.SET);
+    }
+
+    @Test(expected = Asn1UtilException.class)
+    public void shouldRejectIndefiniteLength() {
+        new DerReader(new byte[]{0x30, (byte) 0x80, 0x00, 0x00}).next();
+    }
+
+    @Test(expected = Asn1UtilException.class)
+    public void shouldRejectTruncatedElement() {
+        new DerReader(new byte[]{0x04, 0x05, 0x01}).next();
+    }
+}
@@ -61,6 +61,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.SignatureException;
 import java.security.cert.CertificateException;
+import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Random;
 
@@ -167,6 +168,46 @@ public class X509ResourceCertificateTest {
         assertNotNull(createSelfSignedCaResourceCertificate(TEST_RESOURCE_SET).getCertificate());
     }
 
+    @Test
+    public void shouldDecodeExtensionsOnlyOnce() {
+        X509ResourceCertificate subject = createSelfSignedCaResourceCertificate();
+
+        assertSame(subject.getValidityPeriod(), subject.getValidityPeriod());
+        assertSame(subject.getManifestUri(), subject.getManifestUri());
+        assertSame(subject.getSubject(), subject.getSubject());
+        assertNull(subject.findFirstRsyncCrlDistributionPoint());
+        assertNull(subject.findFirstRsyncCrlDistributionPoint());
+    }
+
+    @Test
+    public void shouldReturnCopiesOfDecodedArrays() {
+        X509ResourceCertificate subject = createSelfSignedCaResourceCertificate();
+        byte[] subjectKeyIdentifier = subject.getSubjectKeyIdentifier();
+        X509CertificateInformationAccessDescriptor[] subjectInformationAccess = subject.getSubjectInformationAccess();
+
+        subjectKeyIdentifier[0] ^= 0xff;
+        subjectInformationAccess[0] = null;
+
+        assertNotSame(subjectKeyIdentifier, subject.getSubjectKeyIdentifier());
+        assertFalse(Arrays.equals(subjectKeyIdentifier, subject.getSubjectKeyIdentifier()));
+        assertNotNull(subject.getSubjectInformationAccess()[0]);
+    }
+
+    @Test
+    public void shouldBaseEqualityOnFingerprint() {
+        X509ResourceCertificate subject = createSelfSignedCaResourceCertificate();
+        X509ResourceCertificateParser parser = new X509ResourceCertificateParser();
+        parser.parse("copy.cer", subject.getEncoded());
+        X509ResourceCertificate copy = parser.getCertificate();
+        X509ResourceCertificate other = createSelfSignedCaCertificateBuilder().withResources(TEST_RESOURCE_SET).withSerial(BigInteger.ONE).build();
+
+        assertSame(subject.getFingerprint(), subject.getFingerprint());
+        assertEquals(subject.getFingerprint(), copy.getFingerprint());
+        assertEquals(subject, copy);
+        assertEquals(subject.hashCode(), copy.hashCode());
+        assertNotEquals(subject, other);
+    }
+
     @Test
     public void shouldDecodeResourceExtensions() {
         assertEquals(TEST_RESOURCE_SET, createSelfSignedCaResourceCertificate(TEST_RESOURCE_SET).getResources());
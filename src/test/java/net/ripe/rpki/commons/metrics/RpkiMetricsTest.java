@@ -0,0 +1,127 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.metrics;
+
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsParser;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsTest;
+import net.ripe.rpki.commons.crypto.crl.X509Crl;
+import net.ripe.rpki.commons.crypto.crl.X509CrlTest;
+import net.ripe.rpki.commons.crypto.util.CertificateRepositoryObjectFactory;
+import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateTest;
+import net.ripe.rpki.commons.validation.ValidationResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static net.ripe.rpki.commons.metrics.RpkiMetrics.*;
+import static net.ripe.rpki.commons.util.RepositoryObjectType.*;
+import static org.junit.Assert.*;
+
+public class RpkiMetricsTest {
+
+    private InMemoryMetricsRecorder recorder;
+
+    @Before
+    public void setUp() {
+        recorder = new InMemoryMetricsRecorder();
+        RpkiMetrics.setRecorder(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        RpkiMetrics.setRecorder(null);
+    }
+
+    @Test
+    public void should_not_measure_without_recorder() {
+        RpkiMetrics.setRecorder(null);
+
+        assertSame(NoOpMetricsRecorder.INSTANCE, RpkiMetrics.getRecorder());
+        assertEquals(0L, RpkiMetrics.startTimer());
+    }
+
+    @Test
+    public void should_record_parse_and_signature_verification_of_signed_objects() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        recorder.reset();
+
+        new RoaCmsParser().parse(ValidationResult.withLocation("roa.roa"), roaCms.getEncoded());
+        new RoaCmsParser().parse(ValidationResult.withLocation("broken.roa"), new byte[]{0, 1});
+
+        assertEquals(2, recorder.getDistribution(PARSE_TIME, Roa).getCount());
+        assertEquals(1, recorder.getDistribution(SIGNATURE_VERIFICATION_TIME, Roa).getCount());
+        assertEquals(roaCms.getEncoded().length, recorder.getDistribution(OBJECT_SIZE, Roa).getMax());
+        assertEquals(1, recorder.getCounter(PARSE_FAILURES, Roa));
+    }
+
+    @Test
+    public void should_record_signed_objects_by_parser_type_regardless_of_location() {
+        RoaCms roaCms = RoaCmsTest.getRoaCms();
+        recorder.reset();
+
+        new RoaCmsParser().parse(ValidationResult.withLocation("rsync://example.net/repository/object"), roaCms.getEncoded());
+
+        assertEquals(1, recorder.getDistribution(PARSE_TIME, Roa).getCount());
+        assertEquals(1, recorder.getDistribution(SIGNATURE_VERIFICATION_TIME, Roa).getCount());
+        assertNull(recorder.getDistribution(PARSE_TIME, Unknown));
+    }
+
+    @Test
+    public void should_record_parse_of_certificates_and_crls() {
+        X509Crl crl = X509CrlTest.createCrl();
+        byte[] certificate = X509ResourceCertificateTest.createSelfSignedCaResourceCertificate().getEncoded();
+        recorder.reset();
+
+        CertificateRepositoryObjectFactory.createCertificateRepositoryObject(crl.getEncoded(), ValidationResult.withLocation("crl.crl"));
+        CertificateRepositoryObjectFactory.createCertificateRepositoryObject(certificate, ValidationResult.withLocation("cert.cer"));
+        CertificateRepositoryObjectFactory.createCertificateRepositoryObject(new byte[]{0, 1}, ValidationResult.withLocation("broken.cer"));
+
+        assertEquals(1, recorder.getDistribution(PARSE_TIME, Crl).getCount());
+        assertEquals(2, recorder.getDistribution(PARSE_TIME, Certificate).getCount());
+        assertEquals(1, recorder.getCounter(PARSE_FAILURES, Certificate));
+        assertEquals(0, recorder.getCounter(PARSE_FAILURES, Crl));
+    }
+
+    @Test
+    public void should_approximate_percentiles() {
+        for (int i = 1; i <= 100; i++) {
+            recorder.recordValue("value", Unknown, i);
+        }
+        InMemoryMetricsRecorder.Distribution distribution = recorder.getDistribution("value", Unknown);
+
+        assertEquals(100, distribution.getCount());
+        assertEquals(5050, distribution.getTotal());
+        assertEquals(100, distribution.getMax());
+        assertEquals(63, distribution.getPercentileUpperBound(50));
+        assertEquals(100, distribution.getPercentileUpperBound(99));
+        assertEquals(1, distribution.getPercentileUpperBound(1));
+    }
+}
@@ -0,0 +1,181 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentValidationResultTest {
+
+    private static final ValidationLocation ROOT = new ValidationLocation("root");
+
+    @Test
+    public void should_collect_checks_from_concurrent_writers() throws Exception {
+        ConcurrentValidationResult subject = ConcurrentValidationResult.withLocation(ROOT);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                final String name = "object-" + i;
+                final boolean failing = i % 10 == 0;
+                futures.add(executor.submit(() -> {
+                    ValidationResult writer = subject.forLocation(name);
+                    writer.pass("parsed");
+                    writer.rejectIfTrue(failing, "valid");
+                    writer.warnForLocation(ROOT, "seen", name);
+                    writer.addMetric("size", "1");
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ValidationResult result = subject.getValidationResult();
+        assertEquals(ROOT, result.getCurrentLocation());
+        assertEquals(1001, result.getValidatedLocations().size());
+        assertEquals(100, result.getFailuresForAllLocations().size());
+        assertEquals(1000, result.getWarnings(ROOT).size());
+        assertTrue(result.hasFailureForLocation(new ValidationLocation("object-10")));
+        assertFalse(result.hasFailureForLocation(new ValidationLocation("object-11")));
+        assertEquals(2, result.getAllValidationChecksForLocation(new ValidationLocation("object-11")).size());
+        assertEquals(1, result.getMetrics(new ValidationLocation("object-11")).size());
+    }
+
+    @Test
+    public void should_count_passing_checks_from_concurrent_writers() throws Exception {
+        ConcurrentValidationResult subject = ConcurrentValidationResult.withLocation(ROOT).withPassingCheckCounts();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final ValidationResult writer = subject.forLocation("writer-" + t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    writer.pass("passed");
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(4000, subject.getValidationResult().getPassedCount("passed"));
+        assertTrue(subject.getValidationResult().getAllValidationChecksForLocation(new ValidationLocation("writer-0")).isEmpty());
+    }
+
+    @Test
+    public void should_not_report_failures_of_other_writers() throws Exception {
+        ConcurrentValidationResult subject = ConcurrentValidationResult.withLocation(ROOT);
+        CountDownLatch failed = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> failing = executor.submit(() -> {
+                ValidationResult writer = subject.forLocation("failing.cer");
+                writer.rejectIfTrue(true, "valid");
+                writer.warnIfTrue(true, "stale");
+                failed.countDown();
+                assertTrue(writer.hasFailures());
+                assertEquals(1, writer.getFailureCount());
+            });
+            Future<Boolean> valid = executor.submit(() -> {
+                ValidationResult writer = subject.forLocation("valid.cer");
+                failed.await();
+                writer.pass("parsed");
+                return !writer.hasFailures() && !writer.hasWarnings() && writer.getFailureCount() == 0 && writer.getPassedCheckCount() == 1;
+            });
+            failing.get();
+            assertTrue(valid.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        ValidationResult result = subject.getValidationResult();
+        assertTrue(result.hasFailures());
+        assertEquals(1, result.getFailureCount());
+        assertEquals(1, result.getWarningCount());
+        assertEquals(1, result.getPassedCheckCount());
+        assertFalse(result.hasFailureForLocation(new ValidationLocation("valid.cer")));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_not_change_storage_mode_after_creating_writers() {
+        ConcurrentValidationResult subject = ConcurrentValidationResult.withLocation(ROOT);
+        subject.forLocation("object");
+        subject.withoutStoringPassingChecks();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_not_change_storage_mode_of_writer() {
+        ConcurrentValidationResult.withLocation(ROOT).forLocation("object").withoutStoringPassingChecks();
+    }
+
+    @Test
+    public void should_forward_checks_of_all_writers_to_listeners() throws Exception {
+        AtomicInteger warnings = new AtomicInteger();
+        ConcurrentValidationResult subject = ConcurrentValidationResult.withLocation(ROOT)
+            .retainingOnlyErrors()
+            .withListener((location, check) -> {
+                if (check.getStatus() == ValidationStatus.WARNING) {
+                    warnings.incrementAndGet();
+                }
+            });
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final ValidationResult writer = subject.forLocation("writer-" + t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    writer.warn("warning");
+                }
+                writer.error("error");
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        ValidationResult result = subject.getValidationResult();
+        assertEquals(4000, warnings.get());
+        assertEquals(4000, result.getWarningCount());
+        assertTrue(result.getWarnings().isEmpty());
+        assertEquals(4, result.getFailuresForAllLocations().size());
+    }
+}
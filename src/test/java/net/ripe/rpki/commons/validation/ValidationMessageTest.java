@@ -31,6 +31,7 @@ package net.ripe.rpki.commons.validation;
 
 import org.junit.Test;
 
+import java.io.StringWriter;
 import java.util.Locale;
 
 import static org.junit.Assert.*;
@@ -68,4 +69,26 @@ public class ValidationMessageTest {
         ValidationCheck validationCheck = new ValidationCheck(ValidationStatus.PASSED, ValidationString.CERTIFICATE_PARSED);
         assertEquals("Certificate can be parsed", ValidationMessage.getMessage(validationCheck, Locale.US));
     }
+
+    @Test
+    public void shouldFormatCachedMessageWithNewArguments() {
+        ValidationCheck first = new ValidationCheck(ValidationStatus.PASSED, ValidationString.VALIDATOR_URI_HOST, "rsync://first/");
+        ValidationCheck second = new ValidationCheck(ValidationStatus.PASSED, ValidationString.VALIDATOR_URI_HOST, "rsync://second/");
+        assertEquals("URI 'rsync://first/' contains a host", ValidationMessage.getMessage(first));
+        assertEquals("URI 'rsync://second/' contains a host", ValidationMessage.getMessage(second));
+    }
+
+    @Test
+    public void shouldWriteMessagesOfValidationResult() throws Exception {
+        ValidationResult result = ValidationResult.withLocation("first.cer");
+        result.pass(ValidationString.CERTIFICATE_PARSED);
+        result.setLocation(new ValidationLocation("second.cer"));
+        result.error(ValidationString.VALIDATOR_URI_HOST, "rsync://localhost/path/");
+        StringWriter out = new StringWriter();
+
+        ValidationMessage.writeMessages(result, Locale.ENGLISH, out);
+
+        assertEquals("first.cer\tpassed\tCertificate can be parsed\n"
+            + "second.cer\terror\t" + ValidationMessage.getMessage(result.getFailuresForCurrentLocation().iterator().next()) + "\n", out.toString());
+    }
 }
@@ -0,0 +1,152 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ValidationResultCodecTest {
+
+    private static final ValidationLocation FIRST_LOCATION = new ValidationLocation("rsync://example.net/repository/first.roa");
+    private static final ValidationLocation SECOND_LOCATION = new ValidationLocation("rsync://example.net/repository/second.mft");
+
+    @Test
+    public void should_round_trip_checks_metrics_and_counts() {
+        ValidationResult result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.rejectIfFalse(true, ValidationString.ROA_CONTENT_TYPE);
+        result.warn(ValidationString.CRLDP_OMITTED, "param", null);
+        result.error("with.null.params", (String[]) null);
+        result.addMetric("fetch.time", "42");
+        result.setLocation(SECOND_LOCATION);
+        result.error(ValidationString.MANIFEST_PAST_NEXT_UPDATE_TIME, "param", "éè" + new String(new char[70000]).replace('\0', 'x'));
+
+        ValidationResult decoded = ValidationResultCodec.decode(ValidationResultCodec.encode(result));
+
+        assertSameResult(result, decoded);
+        assertArrayEquals(new String[]{"param", null}, decoded.getResult(FIRST_LOCATION, ValidationString.CRLDP_OMITTED).getParams());
+        assertNull(decoded.getResult(FIRST_LOCATION, "with.null.params").getParams());
+    }
+
+    @Test
+    public void should_round_trip_storage_modes() {
+        ValidationResult result = ValidationResult.withLocation(FIRST_LOCATION).withUnorderedLocations().withPassingCheckCounts();
+        result.pass("passed");
+        result.warn("warning");
+        result.setLocation(SECOND_LOCATION);
+        result.pass("passed");
+        result.retainingOnlyErrors();
+
+        ValidationResult decoded = ValidationResultCodec.decode(ValidationResultCodec.encode(result));
+
+        assertSameResult(result, decoded);
+        assertFalse(decoded.isOrderingLocations());
+        assertFalse(decoded.isStoringWarnings());
+        assertEquals(2, decoded.getPassedCount("passed"));
+        assertEquals(1, decoded.getWarningCount(FIRST_LOCATION));
+        assertTrue(decoded.hasWarnings());
+    }
+
+    @Test
+    public void should_be_smaller_than_java_serialization() throws Exception {
+        ValidationResult result = ValidationResult.withLocation(FIRST_LOCATION);
+        for (int i = 0; i < 10000; i++) {
+            result.setLocation(new ValidationLocation("rsync://example.net/repository/object-" + i + ".roa"));
+            result.rejectIfFalse(true, ValidationString.ROA_CONTENT_TYPE);
+            result.rejectIfFalse(true, ValidationString.CMS_DATA_PARSING);
+            result.warnIfTrue(i % 10 == 0, ValidationString.CRLDP_OMITTED);
+        }
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(result);
+        }
+
+        byte[] encoded = ValidationResultCodec.encode(result);
+
+        assertTrue(encoded.length + " >= " + serialized.size() / 2, encoded.length < serialized.size() / 2);
+        assertSameResult(result, ValidationResultCodec.decode(encoded));
+    }
+
+    @Test
+    public void should_read_consecutive_results_from_one_stream() throws Exception {
+        ValidationResult first = ValidationResult.withLocation(FIRST_LOCATION);
+        first.error("error");
+        ValidationResult second = ValidationResult.withLocation(SECOND_LOCATION);
+        second.warn("warning");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ValidationResultCodec.write(first, out);
+        ValidationResultCodec.write(second, out);
+        out.write(42);
+
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+
+        assertSameResult(first, ValidationResultCodec.read(in));
+        assertSameResult(second, ValidationResultCodec.read(in));
+        assertEquals(42, in.read());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_invalid_input() {
+        ValidationResultCodec.decode(new byte[]{1, 2, 3, 4, 5});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_reject_truncated_input() {
+        ValidationResult result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.error("error");
+        byte[] encoded = ValidationResultCodec.encode(result);
+
+        ValidationResultCodec.decode(Arrays.copyOf(encoded, encoded.length - 2));
+    }
+
+    private static void assertSameResult(ValidationResult expected, ValidationResult actual) {
+        assertEquals(expected.getCurrentLocation(), actual.getCurrentLocation());
+        assertEquals(expected.getValidatedLocations(), actual.getValidatedLocations());
+        for (ValidationLocation location : expected.getValidatedLocations()) {
+            assertEquals(expected.getAllValidationChecksForLocation(location), actual.getAllValidationChecksForLocation(location));
+            assertEquals(expected.getMetrics(location), actual.getMetrics(location));
+        }
+        assertEquals(expected.getFailureCount(), actual.getFailureCount());
+        assertEquals(expected.getWarningCount(), actual.getWarningCount());
+        assertEquals(expected.getPassedCheckCount(), actual.getPassedCheckCount());
+        assertEquals(expected.getCountedLocations(), actual.getCountedLocations());
+        for (ValidationLocation location : expected.getCountedLocations()) {
+            assertEquals(expected.getFailureCount(location), actual.getFailureCount(location));
+            assertEquals(expected.getWarningCount(location), actual.getWarningCount(location));
+        }
+        assertEquals(expected.isStoringPassingChecks(), actual.isStoringPassingChecks());
+        assertEquals(expected.isCountingPassingChecks(), actual.isCountingPassingChecks());
+    }
+}
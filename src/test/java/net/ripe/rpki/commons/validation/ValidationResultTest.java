@@ -35,8 +35,16 @@ import org.joda.time.DateTimeZone;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.Assert.*;
 
@@ -224,4 +232,218 @@ public class ValidationResultTest {
         assertFalse(result.isStoringPassingChecks());
         assertEquals(0, result.getAllValidationChecksForCurrentLocation().size());
     }
+
+    @Test
+    public void should_count_passing_checks_when_requested() {
+        result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.pass("passed");
+        result.withPassingCheckCounts();
+        assertTrue(result.isCountingPassingChecks());
+        assertFalse(result.isStoringPassingChecks());
+
+        result.rejectIfFalse(true, "passed");
+        result.setLocation(SECOND_LOCATION);
+        result.warnIfNull(new Object(), "passed", "with", "params");
+        result.rejectIfFalse(false, "failed");
+
+        assertEquals(0, result.getAllValidationChecksForLocation(FIRST_LOCATION).size());
+        assertEquals(1, result.getAllValidationChecksForLocation(SECOND_LOCATION).size());
+        assertEquals(3, result.getPassedCount("passed"));
+        assertEquals(0, result.getPassedCount("failed"));
+        assertEquals(Collections.singletonMap("passed", 3), result.getPassedCounts());
+    }
+
+    @Test
+    public void should_count_passed_checks_from_other_validation_result() {
+        result = ValidationResult.withLocation(FIRST_LOCATION).withPassingCheckCounts();
+        ValidationResult storing = ValidationResult.withLocation(SECOND_LOCATION);
+        storing.pass("passed");
+        ValidationResult counting = ValidationResult.withLocation(SECOND_LOCATION).withPassingCheckCounts();
+        counting.pass("passed");
+        counting.pass("other");
+
+        result.addAll(storing).addAll(counting);
+
+        assertEquals(2, result.getPassedCount("passed"));
+        assertEquals(1, result.getPassedCount("other"));
+        assertEquals(0, result.getAllValidationChecksForLocation(SECOND_LOCATION).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void should_not_report_passed_counts_when_not_counting() {
+        ValidationResult.withLocation(FIRST_LOCATION).getPassedCount("passed");
+    }
+
+    @Test
+    public void should_maintain_check_counts() {
+        result = ValidationResult.withLocation(FIRST_LOCATION).withoutStoringPassingChecks();
+        result.rejectIfFalse(true, "passed");
+        result.error("error");
+        result.warnForLocation(SECOND_LOCATION, "warning");
+        ValidationResult that = ValidationResult.withLocation(SECOND_LOCATION);
+        that.pass("passed");
+        that.error("error");
+        that.rejectForLocation(FIRST_LOCATION, "error");
+        result.addAll(that);
+
+        assertEquals(3, result.getFailureCount());
+        assertEquals(1, result.getWarningCount());
+        assertEquals(2, result.getPassedCheckCount());
+        assertEquals(2, result.getFailureCount(FIRST_LOCATION));
+        assertEquals(1, result.getFailureCount(SECOND_LOCATION));
+        assertEquals(1, result.getWarningCount(SECOND_LOCATION));
+        assertEquals(0, result.getWarningCount(new ValidationLocation("unknown")));
+    }
+
+    /**
+     * Failures and warnings are answered from the counters, not from the stored checks.
+     */
+    @Test
+    public void should_report_checks_that_are_no_longer_stored() {
+        result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.warn("warning");
+        result.retainingOnlyErrors();
+        result.setLocation(SECOND_LOCATION);
+        result.rejectForLocation(FIRST_LOCATION, "error");
+
+        assertTrue(result.getWarnings().isEmpty());
+        assertTrue(result.hasWarnings());
+        assertTrue(result.hasFailures());
+        assertFalse(result.hasFailureForCurrentLocation());
+        assertEquals(1, result.getFailureCount(FIRST_LOCATION));
+        assertEquals(1, result.getWarningCount(FIRST_LOCATION));
+        assertEquals(0, result.getFailureCount(SECOND_LOCATION));
+    }
+
+    @Test
+    public void should_format_object_parameters_only_when_storing_check() {
+        result = ValidationResult.withLocation(FIRST_LOCATION).withoutStoringPassingChecks();
+        Supplier<String> failing = () -> {
+            throw new AssertionError("parameter should not be formatted");
+        };
+        result.rejectIfFalse(true, "passed", failing);
+        result.warnIfNull(new Object(), "passed", failing, 42);
+        result.rejectIfTrue(true, "error", NOW, (Supplier<String>) () -> "supplied");
+        result.warnIfFalse(false, "warning", 42);
+
+        assertEquals(2, result.getPassedCheckCount());
+        assertArrayEquals(new String[]{NOW.toString(), "supplied"}, result.getResultForCurrentLocation("error").getParams());
+        assertArrayEquals(new String[]{"42"}, result.getResultForCurrentLocation("warning").getParams());
+    }
+
+    @Test
+    public void should_format_object_parameters_of_stored_passing_checks() {
+        result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.rejectIfNotNull(null, "passed", NOW, null);
+
+        assertArrayEquals(new String[]{NOW.toString(), "null"}, result.getResultForCurrentLocation("passed").getParams());
+    }
+
+    @Test
+    public void should_forward_recorded_checks_to_listeners() {
+        List<String> recorded = new ArrayList<>();
+        result = ValidationResult.withLocation(FIRST_LOCATION)
+            .retainingOnlyErrors()
+            .withListener((location, check) -> recorded.add(location.getName() + ":" + check.getStatus() + ":" + check.getKey() + Arrays.toString(check.getParams())));
+        result.rejectIfFalse(true, "passed", NOW);
+        result.warn("warning");
+        result.rejectForLocation(SECOND_LOCATION, "error", "param");
+        ValidationResult that = ValidationResult.withLocation(SECOND_LOCATION);
+        that.warn("merged");
+        result.addAll(that);
+
+        assertEquals(Arrays.asList(
+            "firstValidatedObject:PASSED:passed[" + NOW + "]",
+            "firstValidatedObject:WARNING:warning[]",
+            "secondValidatedObject:ERROR:error[param]",
+            "secondValidatedObject:WARNING:merged[]"), recorded);
+    }
+
+    @Test
+    public void should_only_retain_errors_when_requested() {
+        result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.warn("warning");
+        result.pass("passed");
+        result.retainingOnlyErrors();
+        result.warnForLocation(SECOND_LOCATION, "warning");
+        result.error("error");
+
+        assertFalse(result.isStoringWarnings());
+        assertFalse(result.isStoringPassingChecks());
+        assertEquals(Collections.singletonList(new ValidationCheck(ValidationStatus.ERROR, "error")), result.getAllValidationChecksForCurrentLocation());
+        assertTrue(result.getWarnings().isEmpty());
+        assertTrue(result.hasWarnings());
+        assertEquals(2, result.getWarningCount());
+        assertEquals(1, result.getWarningCount(FIRST_LOCATION));
+        assertEquals(1, result.getWarningCount(SECOND_LOCATION));
+        assertEquals(Collections.singleton(FIRST_LOCATION), result.getValidatedLocations());
+    }
+
+    @Test
+    public void should_use_canonical_locations_from_pool() {
+        ValidationLocationPool pool = new ValidationLocationPool();
+        ValidationLocation canonical = pool.get(SECOND_LOCATION.getName());
+        result = ValidationResult.withLocation(FIRST_LOCATION).withLocationPool(pool);
+        result.setLocation(new ValidationLocation(SECOND_LOCATION.getName()));
+        result.error("error");
+        result.warnForLocation(new ValidationLocation(FIRST_LOCATION.getName()), "warning");
+
+        assertSame(canonical, result.getCurrentLocation());
+        assertSame(canonical, result.getValidatedLocations().stream().filter(SECOND_LOCATION::equals).findFirst().get());
+        assertEquals(2, pool.size());
+        assertEquals(1, result.getWarnings(FIRST_LOCATION).size());
+    }
+
+    @Test
+    public void should_store_unordered_locations_when_requested() {
+        result = ValidationResult.withLocation(FIRST_LOCATION);
+        result.pass("passed");
+        result.withUnorderedLocations();
+        result.setLocation(SECOND_LOCATION);
+        result.error("error");
+        result.addMetric("metric", "value");
+
+        assertEquals(new HashSet<>(Arrays.asList(FIRST_LOCATION, SECOND_LOCATION)), result.getValidatedLocations());
+        assertEquals(1, result.getAllValidationChecksForLocation(FIRST_LOCATION).size());
+        assertTrue(result.hasFailureForCurrentLocation());
+        assertEquals(1, result.getMetrics(SECOND_LOCATION).size());
+    }
+
+    @Test
+    public void should_deserialize_results_serialized_before_check_counts() throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(getClass().getResourceAsStream("/validation/validation-result-serial-version-2.ser"))) {
+            result = (ValidationResult) in.readObject();
+        }
+
+        assertTrue(result.isStoringWarnings());
+        assertTrue(result.isOrderingLocations());
+        assertTrue(result.hasFailures());
+        assertEquals(1, result.getFailureCount());
+        assertEquals(1, result.getWarningCount());
+        assertEquals(1, result.getPassedCheckCount());
+        assertEquals(1, result.getWarningCount(new ValidationLocation("first")));
+        assertEquals(1, result.getFailureCount(new ValidationLocation("second")));
+        assertEquals(new ValidationLocation("second"), result.getCurrentLocation());
+    }
+
+    @Test
+    public void should_keep_check_counts_when_serialized() throws Exception {
+        result = ValidationResult.withLocation(FIRST_LOCATION).retainingOnlyErrors();
+        result.pass("passed");
+        result.warn("warning");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(result);
+        }
+
+        ValidationResult deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (ValidationResult) in.readObject();
+        }
+
+        assertFalse(deserialized.isStoringWarnings());
+        assertEquals(1, deserialized.getWarningCount());
+        assertEquals(1, deserialized.getWarningCount(FIRST_LOCATION));
+        assertEquals(1, deserialized.getPassedCheckCount());
+    }
 }
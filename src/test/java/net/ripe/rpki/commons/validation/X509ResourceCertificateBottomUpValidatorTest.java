@@ -40,6 +40,7 @@ import net.ripe.rpki.commons.crypto.x509cert.X509CertificateInformationAccessDes
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificate;
 import net.ripe.rpki.commons.crypto.x509cert.X509ResourceCertificateBuilder;
 import net.ripe.rpki.commons.util.UTC;
+import net.ripe.rpki.commons.validation.objectvalidators.ChainValidationCache;
 import net.ripe.rpki.commons.validation.objectvalidators.ResourceCertificateLocator;
 import net.ripe.rpki.commons.validation.objectvalidators.X509ResourceCertificateBottomUpValidator;
 import org.apache.commons.lang.Validate;
@@ -52,7 +53,10 @@ import java.math.BigInteger;
 import java.net.URI;
 import java.security.KeyPair;
 import java.security.cert.CRLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 
 import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateBuilderHelper.*;
 import static net.ripe.rpki.commons.crypto.x509cert.X509CertificateInformationAccessDescriptor.ID_AD_CA_REPOSITORY;
@@ -237,6 +241,108 @@ public class X509ResourceCertificateBottomUpValidatorTest {
         assertTrue(ValidationString.CRL_SIGNATURE_VALID.equals(validationResult.getFailures(CHILD_VALIDATION_LOCATION).get(0).getKey()));
     }
 
+    @Test
+    public void shouldReuseValidatedAncestorsFromChainValidationCache() {
+        ChainValidationCache cache = new ChainValidationCache();
+        grandchild = createSecondChildBuilder().build();
+
+        X509ResourceCertificateBottomUpValidator validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+        assertFalse(validator.getValidationResult().hasFailures());
+        assertEquals(3, cache.size());
+
+        grandchild = createSecondChildBuilder().withSerial(SECOND_CHILD_SERIAL_NUMBER.add(BigInteger.ONE)).build();
+        validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+        assertFalse(validator.getValidationResult().hasFailures());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldShareParsedCrlsThroughChainValidationCache() {
+        ChainValidationCache cache = new ChainValidationCache();
+        grandchild = createSecondChildBuilder().build();
+
+        X509ResourceCertificateBottomUpValidator validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+
+        grandchild = createSecondChildBuilder().withSerial(SECOND_CHILD_SERIAL_NUMBER.add(BigInteger.ONE)).build();
+        validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+
+        assertFalse(validator.getValidationResult().hasFailures());
+        assertEquals(1, cache.getCrl(childCrl.getFingerprint()).getSkippedSignatureVerificationCount());
+    }
+
+    @Test
+    public void shouldRevalidateCachedAncestorsWhenCrlChanges() {
+        ChainValidationCache cache = new ChainValidationCache();
+        grandchild = createSecondChildBuilder().build();
+
+        X509ResourceCertificateBottomUpValidator validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+        assertFalse(validator.getValidationResult().hasFailures());
+
+        rootCrl = getRootCRL().withNumber(BigInteger.valueOf(2)).addEntry(FIRST_CHILD_SERIAL_NUMBER, VALIDITY_PERIOD.getNotValidBefore().plusDays(2)).build(ROOT_KEY_PAIR.getPrivate());
+        grandchild = createSecondChildBuilder().withSerial(SECOND_CHILD_SERIAL_NUMBER.add(BigInteger.ONE)).build();
+        validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+
+        ValidationResult validationResult = validator.getValidationResult();
+        assertTrue(validationResult.hasFailureForLocation(CHILD_VALIDATION_LOCATION));
+        assertEquals(ValidationString.CERT_NOT_REVOKED, validationResult.getFailures(CHILD_VALIDATION_LOCATION).get(0).getKey());
+        // only the root is still reused, child is validated against the new CRL
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldNotShareCachedChainsBetweenTrustAnchors() {
+        ChainValidationCache cache = new ChainValidationCache();
+        grandchild = createSecondChildBuilder().build();
+
+        X509ResourceCertificateBottomUpValidator validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+        assertFalse(validator.getValidationResult().hasFailures());
+
+        validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(child), cache);
+        validator.validate("grandchild", grandchild);
+        assertTrue(validator.getValidationResult().hasFailures());
+        assertEquals(0, cache.getHitCount());
+    }
+
+    @Test
+    public void shouldNotCacheCertificatesWithFailedChain() {
+        ChainValidationCache cache = new ChainValidationCache();
+        grandchild = createSecondChildBuilder().build();
+        rootCrl = getRootCRL().addEntry(FIRST_CHILD_SERIAL_NUMBER, VALIDITY_PERIOD.getNotValidBefore().plusDays(2)).build(ROOT_KEY_PAIR.getPrivate());
+
+        X509ResourceCertificateBottomUpValidator validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("grandchild"), new ResourceCertificateLocatorImpl(), Collections.singletonList(root), cache);
+        validator.validate("grandchild", grandchild);
+
+        assertTrue(validator.getValidationResult().hasFailures());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldCountCachedAncestorsInChainLength() {
+        ChainLocator locator = new ChainLocator(31);
+        ChainValidationCache cache = new ChainValidationCache();
+
+        assertFalse(validate(locator, 29, cache).hasFailures());
+        assertFalse(validate(locator, 30, cache).hasFailures());
+        assertTrue(cache.getHitCount() > 0);
+
+        assertTrue(validate(locator, 31, null).hasFailures());
+        assertTrue(validate(locator, 31, cache).hasFailures());
+    }
+
+    private ValidationResult validate(ChainLocator locator, int depth, ChainValidationCache cache) {
+        X509ResourceCertificate certificate = locator.chain.get(depth - 1);
+        X509ResourceCertificateBottomUpValidator validator = new X509ResourceCertificateBottomUpValidator(ValidationOptions.strictValidation(), ValidationResult.withLocation("descendant"), locator, Collections.singletonList(root), cache);
+        validator.validate("descendant", certificate);
+        return validator.getValidationResult();
+    }
+
     private X509ResourceCertificate getRootResourceCertificate() {
         X509ResourceCertificateBuilder builder = new X509ResourceCertificateBuilder();
 
@@ -354,4 +460,40 @@ public class X509ResourceCertificateBottomUpValidatorTest {
             return null;
         }
     }
+
+    /**
+     * Locates a chain of certificates issued under the root, all using the root key pair.
+     */
+    private class ChainLocator implements ResourceCertificateLocator {
+
+        private final List<X509ResourceCertificate> chain = new ArrayList<>();
+        private final List<X509Crl> crls = new ArrayList<>();
+
+        private ChainLocator(int length) {
+            chain.add(root);
+            crls.add(null);
+            for (int i = 1; i < length; i++) {
+                X500Principal issuer = chain.get(i - 1).getSubject();
+                chain.add(createChildBuilder()
+                    .withIssuerDN(issuer)
+                    .withSubjectDN(new X500Principal("CN=For Testing Only - Descendant " + i))
+                    .withSerial(BigInteger.valueOf(i))
+                    .withPublicKey(ROOT_KEY_PAIR.getPublic())
+                    .build());
+                crls.add(getRootCRL().withIssuerDN(issuer).build(ROOT_KEY_PAIR.getPrivate()));
+            }
+        }
+
+        @Override
+        public CertificateRepositoryObjectFile<X509ResourceCertificate> findParent(X509ResourceCertificate certificate) {
+            X509ResourceCertificate parent = chain.get(chain.indexOf(certificate) - 1);
+            return new CertificateRepositoryObjectFile<>(X509ResourceCertificate.class, "parent", parent.getEncoded());
+        }
+
+        @Override
+        public CertificateRepositoryObjectFile<X509Crl> findCrl(X509ResourceCertificate certificate) {
+            X509Crl crl = crls.get(chain.indexOf(certificate));
+            return crl == null ? null : new CertificateRepositoryObjectFile<>(X509Crl.class, "crl", crl.getEncoded());
+        }
+    }
 }
@@ -0,0 +1,107 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class AllowedRouteDeltaHistoryTest {
+
+    private static final AllowedRoute ROUTE_1 = new AllowedRoute(Asn.parse("AS1"), IpRange.parse("10.0.0.0/8"), 16);
+    private static final AllowedRoute ROUTE_2 = new AllowedRoute(Asn.parse("AS2"), IpRange.parse("10.0.0.0/8"), 16);
+    private static final AllowedRoute ROUTE_3 = new AllowedRoute(Asn.parse("AS3"), IpRange.parse("2001:db8::/32"), 48);
+
+    private AllowedRouteDeltaHistory subject;
+
+    @Before
+    public void setUp() {
+        subject = new AllowedRouteDeltaHistory(2, 10, Collections.singletonList(ROUTE_1));
+    }
+
+    @Test
+    public void shouldRecordDeltaOnUpdate() {
+        AllowedRouteDelta delta = subject.update(11, Arrays.asList(ROUTE_2, ROUTE_3));
+
+        assertEquals(new AllowedRouteDelta(10, 11, Arrays.asList(ROUTE_2, ROUTE_3), Collections.singletonList(ROUTE_1)), delta);
+        assertEquals(11, subject.getCurrentSerial());
+        assertEquals(delta, subject.getDeltaSince(10));
+    }
+
+    @Test
+    public void shouldCombineDeltasSinceSerial() {
+        subject.update(11, Arrays.asList(ROUTE_1, ROUTE_2));
+        subject.update(12, Arrays.asList(ROUTE_2, ROUTE_3));
+
+        assertEquals(new AllowedRouteDelta(10, 12, Arrays.asList(ROUTE_2, ROUTE_3), Collections.singletonList(ROUTE_1)), subject.getDeltaSince(10));
+        assertEquals(new AllowedRouteDelta(11, 12, Collections.singletonList(ROUTE_3), Collections.singletonList(ROUTE_1)), subject.getDeltaSince(11));
+        assertTrue(subject.getDeltaSince(12).isEmpty());
+    }
+
+    @Test
+    public void shouldCancelOutRoutesWithdrawnAndAnnouncedAgain() {
+        subject.update(11, Collections.<AllowedRoute>emptyList());
+        subject.update(12, Collections.singletonList(ROUTE_1));
+
+        assertTrue(subject.getDeltaSince(10).isEmpty());
+    }
+
+    @Test
+    public void shouldForgetDeltasBeyondMaximum() {
+        subject.update(11, Collections.singletonList(ROUTE_2));
+        subject.update(12, Collections.singletonList(ROUTE_3));
+        subject.update(13, Collections.singletonList(ROUTE_1));
+
+        assertNull(subject.getDeltaSince(10));
+        assertNotNull(subject.getDeltaSince(11));
+        assertNull(subject.getDeltaSince(42));
+    }
+
+    @Test
+    public void shouldUseSnapshotSerial() {
+        AllowedRouteSnapshot snapshot = AllowedRouteSnapshot.of(20, Collections.singletonList(ROUTE_2));
+
+        subject.update(snapshot);
+
+        assertEquals(20, subject.getCurrentSerial());
+        assertEquals(Collections.singletonList(ROUTE_2), subject.getCurrent().getAllowedRoutes());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNonIncreasingSerial() {
+        subject.update(10, Collections.singletonList(ROUTE_2));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.IpRange;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsTest;
+import net.ripe.rpki.commons.crypto.cms.roa.RoaPrefix;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static net.ripe.rpki.commons.crypto.cms.roa.RoaCmsParserTest.*;
+import static org.junit.Assert.*;
+
+public class AllowedRouteSnapshotPublisherTest {
+
+    private static final AnnouncedRoute ANNOUNCED_ROUTE = new AnnouncedRoute(TEST_ASN, IpRange.parse("10.0.0.0/16"));
+
+    private final AllowedRouteSnapshotPublisher subject = new AllowedRouteSnapshotPublisher();
+
+    @Test
+    public void shouldStartWithEmptySnapshot() {
+        AllowedRouteSnapshot snapshot = subject.getCurrentSnapshot();
+
+        assertEquals(0, snapshot.getSerial());
+        assertEquals(0, snapshot.size());
+        assertEquals(RouteValidityState.UNKNOWN, snapshot.validate(ANNOUNCED_ROUTE));
+    }
+
+    @Test
+    public void shouldPublishSnapshotsWithIncreasingSerial() {
+        RoaCms roa = RoaCmsTest.createRoaCms(Collections.singletonList(new RoaPrefix(IpRange.parse("10.0.0.0/8"), 16)));
+
+        AllowedRouteSnapshot first = subject.publishRoas(Collections.singletonList(roa));
+        AllowedRouteSnapshot second = subject.publish(Collections.<AllowedRoute>emptyList());
+
+        assertEquals(1, first.getSerial());
+        assertEquals(AllowedRoute.fromRoas(Collections.singletonList(roa)), first.getAllowedRoutes());
+        assertEquals(RouteValidityState.VALID, first.validate(ANNOUNCED_ROUTE));
+        assertEquals(2, second.getSerial());
+        assertEquals(RouteValidityState.UNKNOWN, second.validate(ANNOUNCED_ROUTE));
+        assertSame(second, subject.getCurrentSnapshot());
+    }
+
+    @Test
+    public void shouldAssignUniqueSerialsToConcurrentlyPublishedSnapshots() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AllowedRouteSnapshot>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(executor.submit(new Callable<AllowedRouteSnapshot>() {
+                    @Override
+                    public AllowedRouteSnapshot call() {
+                        return subject.publish(Collections.singletonList(new AllowedRoute(TEST_ASN, IpRange.parse("10.0.0.0/8"), 16)));
+                    }
+                }));
+            }
+            Set<Long> serials = new HashSet<>();
+            for (Future<AllowedRouteSnapshot> future : futures) {
+                serials.add(future.get().getSerial());
+            }
+
+            assertEquals(100, serials.size());
+            assertEquals(100, subject.getCurrentSnapshot().getSerial());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.IpResource;
+import net.ripe.ipresource.Ipv4Address;
+import net.ripe.ipresource.Ipv6Address;
+import net.ripe.ipresource.etree.NestedIntervalMap;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AllowedRouteTrieTest {
+
+    private static final Asn AS1 = Asn.parse("AS1");
+    private static final Asn AS2 = Asn.parse("AS4200000000");
+
+    private final RouteOriginValidationPolicy policy = new RouteOriginValidationPolicy();
+
+    @Test
+    public void shouldBeUnknownWithoutCoveringRoute() {
+        AllowedRouteTrie subject = AllowedRouteTrie.build(Collections.singletonList(new AllowedRoute(AS1, IpRange.parse("10.0.0.0/16"), 24)));
+
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("10.1.0.0/16"))));
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("10.0.0.0/15"))));
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("2001:db8::/32"))));
+    }
+
+    @Test
+    public void shouldValidateAsnAndMaximumLength() {
+        AllowedRouteTrie subject = AllowedRouteTrie.build(Collections.singletonList(new AllowedRoute(AS1, IpRange.parse("10.0.0.0/16"), 24)));
+
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("10.0.0.0/16"))));
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("10.0.255.0/24"))));
+        assertEquals(RouteValidityState.INVALID_LENGTH, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("10.0.0.0/25"))));
+        assertEquals(RouteValidityState.INVALID_ASN, subject.validate(new AnnouncedRoute(AS2, IpRange.parse("10.0.0.0/24"))));
+    }
+
+    @Test
+    public void shouldPreferValidOverInvalidCoveringRoutes() {
+        AllowedRouteTrie subject = AllowedRouteTrie.build(Arrays.asList(
+            new AllowedRoute(AS2, IpRange.parse("10.0.0.0/8"), 24),
+            new AllowedRoute(AS1, IpRange.parse("10.0.0.0/16"), 16),
+            new AllowedRoute(AS1, IpRange.parse("10.0.0.0/16"), 24)));
+
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("10.0.0.0/24"))));
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(AS2, IpRange.parse("10.1.0.0/24"))));
+    }
+
+    @Test
+    public void shouldValidateIpv6Routes() {
+        AllowedRouteTrie subject = AllowedRouteTrie.build(Collections.singletonList(new AllowedRoute(AS2, IpRange.parse("2001:db8::/32"), 48)));
+
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(AS2, IpRange.parse("2001:db8:ffff::/48"))));
+        assertEquals(RouteValidityState.INVALID_LENGTH, subject.validate(new AnnouncedRoute(AS2, IpRange.parse("2001:db8::/64"))));
+        assertEquals(RouteValidityState.INVALID_ASN, subject.validate(new AnnouncedRoute(AS1, IpRange.parse("2001:db8::/32"))));
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(AS2, IpRange.parse("2001:db9::/32"))));
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(AS2, IpRange.parse("10.0.0.0/8"))));
+    }
+
+    @Test
+    public void shouldValidatePrimitivePrefixes() {
+        AllowedRouteTrie subject = AllowedRouteTrie.build(Arrays.asList(
+            new AllowedRoute(AS1, IpRange.parse("10.0.0.0/16"), 24),
+            new AllowedRoute(AS2, IpRange.parse("2001:db8::/32"), 48)));
+
+        assertEquals(RouteValidityState.VALID, subject.validateIpv4(Ipv4Address.parse("10.0.1.0").longValue(), 24, AS1.longValue()));
+        assertEquals(RouteValidityState.INVALID_ASN, subject.validateIpv4(Ipv4Address.parse("10.0.1.0").longValue(), 24, AS2.longValue()));
+        assertEquals(RouteValidityState.VALID, subject.validateIpv6(0x20010db800010000L, 0L, 48, AS2.longValue()));
+        assertEquals(RouteValidityState.INVALID_LENGTH, subject.validateIpv6(0x20010db800010000L, 0L, 64, AS2.longValue()));
+    }
+
+    @Test
+    public void shouldMatchNestedIntervalMapResults() {
+        Random random = new Random(42);
+        List<AllowedRoute> allowedRoutes = randomAllowedRoutes(random, 50);
+        NestedIntervalMap<IpResource, List<AllowedRoute>> map = RouteOriginValidationPolicy.allowedRoutesToNestedIntervalMap(allowedRoutes);
+        AllowedRouteTrie trie = RouteOriginValidationPolicy.allowedRoutesToTrie(allowedRoutes);
+
+        assertEquals(allowedRoutes.size(), trie.size());
+        EnumSet<RouteValidityState> seen = EnumSet.noneOf(RouteValidityState.class);
+        for (AnnouncedRoute announcedRoute : randomAnnouncedRoutes(random, 20000)) {
+            RouteValidityState expected = policy.validateAnnouncedRoute(map, announcedRoute);
+            assertEquals(announcedRoute.toString(), expected, policy.validateAnnouncedRoute(trie, announcedRoute));
+            seen.add(expected);
+        }
+        assertEquals(EnumSet.allOf(RouteValidityState.class), seen);
+    }
+
+    static List<AllowedRoute> randomAllowedRoutes(Random random, int count) {
+        List<AllowedRoute> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            IpRange prefix = randomPrefix(random, 8);
+            int maximumLength = prefix.getPrefixLength() + random.nextInt(prefix.getType().getBitSize() - prefix.getPrefixLength() + 1);
+            result.add(new AllowedRoute(randomAsn(random), prefix, Math.min(maximumLength, prefix.getPrefixLength() + 8)));
+        }
+        return result;
+    }
+
+    static List<AnnouncedRoute> randomAnnouncedRoutes(Random random, int count) {
+        List<AnnouncedRoute> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(new AnnouncedRoute(randomAsn(random), randomPrefix(random, 0)));
+        }
+        return result;
+    }
+
+    private static Asn randomAsn(Random random) {
+        return new Asn(random.nextInt(4) == 0 ? 4200000000L + random.nextInt(4) : 1 + random.nextInt(4));
+    }
+
+    /**
+     * Prefixes are drawn from a small address space so that allowed and announced routes overlap a lot.
+     */
+    private static IpRange randomPrefix(Random random, int minimumLength) {
+        if (random.nextBoolean()) {
+            long address = (10L << 24) | (random.nextInt(4) << 16) | (random.nextInt(4) << 8);
+            int length = minimumLength + random.nextInt(25 - minimumLength);
+            return IpRange.prefix(new Ipv4Address(address).lowerBoundForPrefix(length), length);
+        } else {
+            BigInteger address = BigInteger.valueOf(0x20010db8L).shiftLeft(96).or(BigInteger.valueOf(random.nextInt(4)).shiftLeft(80));
+            int length = minimumLength + random.nextInt(49 - minimumLength);
+            return IpRange.prefix(new Ipv6Address(address).lowerBoundForPrefix(length), length);
+        }
+    }
+}
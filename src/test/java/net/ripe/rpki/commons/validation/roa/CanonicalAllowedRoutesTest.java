@@ -0,0 +1,90 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class CanonicalAllowedRoutesTest {
+
+    private static final AllowedRoute IPV4_ROUTE = new AllowedRoute(Asn.parse("AS1"), IpRange.parse("10.0.0.0/8"), 16);
+    private static final AllowedRoute IPV4_ROUTE_OTHER_ASN = new AllowedRoute(Asn.parse("AS4200000000"), IpRange.parse("10.0.0.0/8"), 16);
+    private static final AllowedRoute IPV6_ROUTE = new AllowedRoute(Asn.parse("AS1"), IpRange.parse("2001:db8::/32"), 48);
+
+    @Test
+    public void shouldSortAndRemoveDuplicates() {
+        CanonicalAllowedRoutes subject = CanonicalAllowedRoutes.of(Arrays.asList(IPV6_ROUTE, IPV4_ROUTE_OTHER_ASN, IPV4_ROUTE, IPV6_ROUTE));
+
+        assertEquals(Arrays.asList(IPV4_ROUTE, IPV4_ROUTE_OTHER_ASN, IPV6_ROUTE), subject.getAllowedRoutes());
+    }
+
+    @Test
+    public void shouldDiffSets() {
+        CanonicalAllowedRoutes older = CanonicalAllowedRoutes.of(Arrays.asList(IPV4_ROUTE, IPV6_ROUTE));
+        CanonicalAllowedRoutes newer = CanonicalAllowedRoutes.of(Arrays.asList(IPV4_ROUTE_OTHER_ASN, IPV6_ROUTE));
+        List<AllowedRoute> announced = new ArrayList<>();
+        List<AllowedRoute> withdrawn = new ArrayList<>();
+
+        older.diff(newer, announced, withdrawn);
+
+        assertEquals(Arrays.asList(IPV4_ROUTE_OTHER_ASN), announced);
+        assertEquals(Arrays.asList(IPV4_ROUTE), withdrawn);
+    }
+
+    @Test
+    public void shouldMatchSetDifference() {
+        Random random = new Random(5);
+        List<AllowedRoute> olderRoutes = AllowedRouteTrieTest.randomAllowedRoutes(random, 1000);
+        List<AllowedRoute> newerRoutes = AllowedRouteTrieTest.randomAllowedRoutes(random, 1000);
+        List<AllowedRoute> announced = new ArrayList<>();
+        List<AllowedRoute> withdrawn = new ArrayList<>();
+
+        CanonicalAllowedRoutes.of(olderRoutes).diff(CanonicalAllowedRoutes.of(newerRoutes), announced, withdrawn);
+
+        Set<AllowedRoute> expectedAnnounced = new HashSet<>(newerRoutes);
+        expectedAnnounced.removeAll(olderRoutes);
+        Set<AllowedRoute> expectedWithdrawn = new HashSet<>(olderRoutes);
+        expectedWithdrawn.removeAll(newerRoutes);
+        assertEquals(expectedAnnounced, new HashSet<>(announced));
+        assertEquals(expectedAnnounced.size(), announced.size());
+        assertEquals(expectedWithdrawn, new HashSet<>(withdrawn));
+        assertEquals(expectedWithdrawn.size(), withdrawn.size());
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import net.ripe.ipresource.Ipv4Address;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class IncrementalAllowedRouteIndexTest {
+
+    private static final Asn AS1 = Asn.parse("AS1");
+    private static final Asn AS2 = Asn.parse("AS2");
+
+    private static final AllowedRoute ROUTE_10_8_AS1 = new AllowedRoute(AS1, IpRange.parse("10.0.0.0/8"), 16);
+    private static final AllowedRoute ROUTE_10_16_AS2 = new AllowedRoute(AS2, IpRange.parse("10.0.0.0/16"), 24);
+
+    private static final AnnouncedRoute ANNOUNCED_10_16_AS1 = new AnnouncedRoute(AS1, IpRange.parse("10.0.0.0/16"));
+    private static final AnnouncedRoute ANNOUNCED_10_24_AS2 = new AnnouncedRoute(AS2, IpRange.parse("10.0.0.0/24"));
+    private static final AnnouncedRoute ANNOUNCED_11_8_AS1 = new AnnouncedRoute(AS1, IpRange.parse("11.0.0.0/8"));
+
+    private IncrementalAllowedRouteIndex subject;
+
+    @Before
+    public void setUp() {
+        subject = new IncrementalAllowedRouteIndex(Collections.singletonList(ROUTE_10_8_AS1));
+    }
+
+    @Test
+    public void shouldTrackAnnouncedRoutes() {
+        assertEquals(RouteValidityState.VALID, subject.track(ANNOUNCED_10_16_AS1));
+        assertEquals(RouteValidityState.INVALID_ASN, subject.track(ANNOUNCED_10_24_AS2));
+        assertEquals(RouteValidityState.UNKNOWN, subject.track(ANNOUNCED_11_8_AS1));
+
+        assertEquals(RouteValidityState.INVALID_ASN, subject.getTrackedState(ANNOUNCED_10_24_AS2));
+        subject.untrack(ANNOUNCED_10_24_AS2);
+        assertNull(subject.getTrackedState(ANNOUNCED_10_24_AS2));
+    }
+
+    @Test
+    public void shouldReportChangedStatesOfTrackedRoutes() {
+        subject.track(ANNOUNCED_10_16_AS1);
+        subject.track(ANNOUNCED_10_24_AS2);
+        subject.track(ANNOUNCED_11_8_AS1);
+
+        List<RouteValidityChange> changes = subject.update(Collections.singletonList(ROUTE_10_16_AS2), Collections.<AllowedRoute>emptyList());
+
+        assertEquals(Collections.singletonList(new RouteValidityChange(ANNOUNCED_10_24_AS2, RouteValidityState.INVALID_ASN, RouteValidityState.VALID)), changes);
+        assertEquals(2, subject.size());
+
+        changes = subject.update(Collections.<AllowedRoute>emptyList(), Arrays.asList(ROUTE_10_8_AS1, ROUTE_10_16_AS2));
+
+        assertEquals(Arrays.asList(
+            new RouteValidityChange(ANNOUNCED_10_16_AS1, RouteValidityState.VALID, RouteValidityState.UNKNOWN),
+            new RouteValidityChange(ANNOUNCED_10_24_AS2, RouteValidityState.VALID, RouteValidityState.UNKNOWN)), changes);
+        assertEquals(0, subject.size());
+        assertEquals(RouteValidityState.UNKNOWN, subject.getTrackedState(ANNOUNCED_10_24_AS2));
+    }
+
+    @Test
+    public void shouldIgnoreRemovalOfUnknownRoute() {
+        subject.track(ANNOUNCED_10_16_AS1);
+
+        List<RouteValidityChange> changes = subject.update(Collections.<AllowedRoute>emptyList(), Collections.singletonList(ROUTE_10_16_AS2));
+
+        assertTrue(changes.isEmpty());
+        assertEquals(1, subject.size());
+    }
+
+    @Test
+    public void shouldValidatePrimitivePrefixes() {
+        subject.update(Collections.singletonList(new AllowedRoute(AS2, IpRange.parse("2001:db8::/32"), 48)), Collections.<AllowedRoute>emptyList());
+
+        assertEquals(RouteValidityState.VALID, subject.validateIpv4(Ipv4Address.parse("10.1.0.0").longValue(), 16, AS1.longValue()));
+        assertEquals(RouteValidityState.INVALID_LENGTH, subject.validateIpv4(Ipv4Address.parse("10.1.1.0").longValue(), 24, AS1.longValue()));
+        assertEquals(RouteValidityState.VALID, subject.validateIpv6(0x20010db800010000L, 0L, 48, AS2.longValue()));
+        assertEquals(RouteValidityState.INVALID_ASN, subject.validateIpv6(0x20010db800010000L, 0L, 48, AS1.longValue()));
+    }
+
+    @Test
+    public void shouldMatchRebuiltIndexAfterDeltas() {
+        Random random = new Random(11);
+        List<AllowedRoute> current = new ArrayList<>(AllowedRouteTrieTest.randomAllowedRoutes(random, 50));
+        IncrementalAllowedRouteIndex index = new IncrementalAllowedRouteIndex(current);
+        List<AnnouncedRoute> announcedRoutes = AllowedRouteTrieTest.randomAnnouncedRoutes(random, 2000);
+        for (AnnouncedRoute announcedRoute : announcedRoutes) {
+            index.track(announcedRoute);
+        }
+
+        for (int round = 0; round < 10; round++) {
+            List<AllowedRoute> removed = new ArrayList<>(current.subList(0, 5));
+            List<AllowedRoute> added = AllowedRouteTrieTest.randomAllowedRoutes(random, 5);
+            current.subList(0, 5).clear();
+            current.addAll(added);
+
+            index.update(added, removed);
+
+            AllowedRouteTrie rebuilt = AllowedRouteTrie.build(current);
+            for (AnnouncedRoute announcedRoute : announcedRoutes) {
+                assertEquals(rebuilt.validate(announcedRoute), index.getTrackedState(announcedRoute));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/**
+ * The BSD License
+ *
+ * Copyright (c) 2010-2020 RIPE NCC
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *   - Redistributions of source code must retain the above copyright notice,
+ *     this list of conditions and the following disclaimer.
+ *   - Redistributions in binary form must reproduce the above copyright notice,
+ *     this list of conditions and the following disclaimer in the documentation
+ *     and/or other materials provided with the distribution.
+ *   - Neither the name of the RIPE NCC nor the names of its contributors may be
+ *     used to endorse or promote products derived from this software without
+ *     specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package net.ripe.rpki.commons.validation.roa;
+
+import net.ripe.ipresource.Asn;
+import net.ripe.ipresource.IpRange;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MappedAllowedRouteTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteAndOpenTable() throws IOException {
+        File file = new File(folder.getRoot(), "vrps.bin");
+        List<AllowedRoute> allowedRoutes = Arrays.asList(
+            new AllowedRoute(Asn.parse("AS4200000000"), IpRange.parse("2001:db8::/32"), 48),
+            new AllowedRoute(Asn.parse("AS1"), IpRange.parse("10.0.0.0/8"), 16));
+
+        MappedAllowedRouteTable.write(file, 42, allowedRoutes);
+        MappedAllowedRouteTable subject = MappedAllowedRouteTable.open(file);
+
+        assertEquals(42, subject.getSerial());
+        assertEquals(2, subject.size());
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(Asn.parse("AS1"), IpRange.parse("10.1.0.0/16"))));
+        assertEquals(RouteValidityState.INVALID_LENGTH, subject.validate(new AnnouncedRoute(Asn.parse("AS1"), IpRange.parse("10.1.1.0/24"))));
+        assertEquals(RouteValidityState.INVALID_ASN, subject.validate(new AnnouncedRoute(Asn.parse("AS1"), IpRange.parse("2001:db8::/32"))));
+        assertEquals(RouteValidityState.VALID, subject.validate(new AnnouncedRoute(Asn.parse("AS4200000000"), IpRange.parse("2001:db8:1::/48"))));
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(Asn.parse("AS1"), IpRange.parse("11.0.0.0/8"))));
+    }
+
+    @Test
+    public void shouldOpenEmptyTable() throws IOException {
+        File file = new File(folder.getRoot(), "vrps.bin");
+
+        MappedAllowedRouteTable.write(file, 1, Collections.<AllowedRoute>emptyList());
+        MappedAllowedRouteTable subject = MappedAllowedRouteTable.open(file);
+
+        assertEquals(0, subject.size());
+        assertEquals(RouteValidityState.UNKNOWN, subject.validate(new AnnouncedRoute(Asn.parse("AS1"), IpRange.parse("0.0.0.0/0"))));
+    }
+
+    @Test
+    public void shouldMatchTrieResults() throws IOException {
+        Random random = new Random(3);
+        List<AllowedRoute> allowedRoutes = AllowedRouteTrieTest.randomAllowedRoutes(random, 50);
+        File file = new File(folder.getRoot(), "vrps.bin");
+
+        MappedAllowedRouteTable.write(file, 1, allowedRoutes);
+        MappedAllowedRouteTable subject = MappedAllowedRouteTable.open(file);
+        AllowedRouteTrie trie = AllowedRouteTrie.build(allowedRoutes);
+
+        for (AnnouncedRoute announcedRoute : AllowedRouteTrieTest.randomAnnouncedRoutes(random, 20000)) {
+            assertEquals(announcedRoute.toString(), trie.validate(announcedRoute), subject.validate(announcedRoute));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectCorruptedTable() throws IOException {
+        File file = new File(folder.getRoot(), "vrps.bin");
+        MappedAllowedRouteTable.write(file, 1, Collections.singletonList(new AllowedRoute(Asn.parse("AS1"), IpRange.parse("10.0.0.0/8"), 16)));
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.seek(out.length() - 1);
+            out.write(2);
+        }
+
+        MappedAllowedRouteTable.open(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherFiles() throws IOException {
+        File file = folder.newFile("other.bin");
+
+        MappedAllowedRouteTable.open(file);
+    }
+}
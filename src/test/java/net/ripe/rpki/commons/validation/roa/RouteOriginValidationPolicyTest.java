@@ -32,6 +32,7 @@ package net.ripe.rpki.commons.validation.roa;
 import net.ripe.ipresource.Asn;
 import net.ripe.ipresource.IpRange;
 import net.ripe.ipresource.IpResource;
+import net.ripe.ipresource.Ipv4Address;
 import net.ripe.ipresource.etree.NestedIntervalMap;
 import net.ripe.rpki.commons.crypto.cms.roa.RoaCms;
 import net.ripe.rpki.commons.crypto.cms.roa.RoaCmsTest;
@@ -42,6 +43,7 @@ import org.junit.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 import static net.ripe.rpki.commons.crypto.cms.roa.RoaCmsParserTest.*;
@@ -140,6 +142,47 @@ public class RouteOriginValidationPolicyTest {
 
     }
 
+    @Test
+    public void should_validate_batch_of_announced_routes_like_single_routes() {
+        Random random = new Random(7);
+        AllowedRouteTrie allowedRoutes = RouteOriginValidationPolicy.allowedRoutesToTrie(AllowedRouteTrieTest.randomAllowedRoutes(random, 50));
+        List<AnnouncedRoute> announcedRoutes = AllowedRouteTrieTest.randomAnnouncedRoutes(random, 20000);
+
+        byte[] states = subject.validateAnnouncedRoutes(allowedRoutes, announcedRoutes);
+
+        assertEquals(announcedRoutes.size(), states.length);
+        for (int i = 0; i < states.length; i++) {
+            assertEquals(subject.validateAnnouncedRoute(allowedRoutes, announcedRoutes.get(i)), RouteValidityState.fromOrdinal(states[i]));
+        }
+    }
+
+    @Test
+    public void should_validate_primitive_route_arrays() {
+        AllowedRouteTrie allowedRoutes = RouteOriginValidationPolicy.allowedRoutesToTrie(Arrays.asList(
+            new AllowedRoute(TEST_ASN, IpRange.parse("192.168.0.0/16"), 20),
+            new AllowedRoute(TEST_ASN, IpRange.parse("2001:db8::/32"), 48)));
+        long address = Ipv4Address.parse("192.168.0.0").longValue();
+
+        byte[] ipv4 = subject.validateIpv4Routes(allowedRoutes,
+            new long[]{address, address, address, Ipv4Address.parse("10.0.0.0").longValue()},
+            new int[]{20, 24, 16, 8},
+            new long[]{TEST_ASN.longValue(), TEST_ASN.longValue(), 64496L, TEST_ASN.longValue()});
+        byte[] ipv6 = subject.validateIpv6Routes(allowedRoutes,
+            new long[]{0x20010db800000000L, 0x20010db800000000L},
+            new long[]{0L, 0L},
+            new int[]{48, 64},
+            new long[]{TEST_ASN.longValue(), TEST_ASN.longValue()});
+
+        assertArrayEquals(new byte[]{
+            (byte) RouteValidityState.VALID.ordinal(),
+            (byte) RouteValidityState.INVALID_LENGTH.ordinal(),
+            (byte) RouteValidityState.INVALID_ASN.ordinal(),
+            (byte) RouteValidityState.UNKNOWN.ordinal()}, ipv4);
+        assertArrayEquals(new byte[]{
+            (byte) RouteValidityState.VALID.ordinal(),
+            (byte) RouteValidityState.INVALID_LENGTH.ordinal()}, ipv6);
+    }
+
     private void testValidatityDetermination(String roaIpPrefix, int roaMaxLength, Asn routeAsn, String routePrefix, RouteValidityState expectedResult) {
         NestedIntervalMap<IpResource, List<AllowedRoute>> rtrPrefixes = roa(new RoaPrefix(IpRange.parse(roaIpPrefix), roaMaxLength));
         AnnouncedRoute route = new AnnouncedRoute(routeAsn, IpRange.parse(routePrefix));